@@ -0,0 +1,142 @@
+package se.fortnox.reactivewizard.client;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.slf4j.event.Level;
+import reactor.core.publisher.Mono;
+import se.fortnox.reactivewizard.jaxrs.WebException;
+import se.fortnox.reactivewizard.metrics.HealthRecorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Guards each attempt of a call of a client by the {@link CircuitBreaker} and the {@link ConcurrencyLimit} enabled in
+ * its config. An attempt that is not permitted fails fast with 503, and is not retried.
+ */
+class CallGuard {
+    static final String ERROR_CIRCUIT_OPEN        = "circuit.open";
+    static final String ERROR_CONCURRENCY_LIMITED = "concurrency.limited";
+
+    private final String           name;
+    private final CircuitBreaker   circuitBreaker;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final long             slowCallNanos;
+    private final LongSupplier     nanoTime;
+
+    CallGuard(String name, HttpClientConfig config, HealthRecorder healthRecorder, LongSupplier nanoTime) {
+        this.name = name;
+        this.circuitBreaker = config.isCircuitBreakerEnabled() ? new CircuitBreaker(name, config, healthRecorder, nanoTime) : null;
+        this.concurrencyLimit = config.isAdaptiveConcurrencyLimitEnabled()
+            ? new ConcurrencyLimit(name, config.getInitialConcurrencyLimit(), config.getMaxConcurrencyLimit())
+            : null;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerSlowCallMs());
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Check if any guard is enabled.
+     *
+     * @return whether calls are guarded
+     */
+    boolean isGuarding() {
+        return circuitBreaker != null || concurrencyLimit != null;
+    }
+
+    /**
+     * Make an attempt of a call if it is permitted, and record its outcome.
+     *
+     * @param attempt the attempt
+     * @param <T> the type of the response
+     * @return the response, or an error with status 503 if the attempt is not permitted
+     */
+    <T> Mono<T> call(Mono<T> attempt) {
+        if (!isGuarding()) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                return Mono.error(rejection(ERROR_CIRCUIT_OPEN));
+            }
+            if (concurrencyLimit != null && !concurrencyLimit.tryAcquire()) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.release();
+                }
+                return Mono.error(rejection(ERROR_CONCURRENCY_LIMITED));
+            }
+            long          start    = nanoTime.getAsLong();
+            AtomicBoolean released = new AtomicBoolean();
+            return attempt
+                .doOnNext(response -> release(released, start, false))
+                .doOnError(error -> release(released, start, isFailure(error)))
+                .doFinally(signal -> {
+                    if (released.compareAndSet(false, true)) {
+                        cancel();
+                    }
+                });
+        });
+    }
+
+    private void release(AtomicBoolean released, long start, boolean failed) {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        long duration = nanoTime.getAsLong() - start;
+        if (circuitBreaker != null) {
+            circuitBreaker.record(duration, failed);
+        }
+        if (concurrencyLimit != null) {
+            concurrencyLimit.release(failed || duration >= slowCallNanos);
+        }
+    }
+
+    private void cancel() {
+        if (circuitBreaker != null) {
+            circuitBreaker.release();
+        }
+        if (concurrencyLimit != null) {
+            concurrencyLimit.cancel();
+        }
+    }
+
+    private WebException rejection(String error) {
+        return new WebException(SERVICE_UNAVAILABLE, error)
+            .withErrorParams(name)
+            .withLogLevel(Level.WARN);
+    }
+
+    /**
+     * Check if an attempt failed because of the server, rather than because of the request.
+     */
+    private static boolean isFailure(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof ReadTimeoutException) {
+            return true;
+        }
+        if (error instanceof WebException webException) {
+            return webException.getStatus().code() >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * Check if an error is the rejection of an attempt that was not permitted.
+     *
+     * @param error the error
+     * @return whether the error is a rejection
+     */
+    static boolean isRejection(Throwable error) {
+        return error instanceof WebException webException
+            && (ERROR_CIRCUIT_OPEN.equals(webException.getError()) || ERROR_CONCURRENCY_LIMITED.equals(webException.getError()));
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+}
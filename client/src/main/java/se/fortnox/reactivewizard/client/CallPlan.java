@@ -0,0 +1,381 @@
+package se.fortnox.reactivewizard.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.common.collect.Sets;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import se.fortnox.reactivewizard.jaxrs.Hedged;
+import se.fortnox.reactivewizard.jaxrs.JaxRsMeta;
+import se.fortnox.reactivewizard.util.FluxRxConverter;
+import se.fortnox.reactivewizard.util.ReflectionUtil;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The parts of a call of a client method that do not depend on its arguments, prepared the first time the method is
+ * called. The path is split into its literal parts and its path params, the arguments are bound to the request by the
+ * params they are annotated with, and the reader of the response and the name of the metric are prepared once.
+ */
+final class CallPlan {
+    private final Method                 method;
+    private final JaxRsMeta              meta;
+    private final String[]               literals;
+    private final PathVariable[]         pathVariables;
+    private final boolean                pathHasQuery;
+    private final UriArg[]               uriArgs;
+    private final HeaderArg[]            headerArgs;
+    private final CustomArg[]            customArgs;
+    private final ContentArg[]           contentArgs;
+    private final String                 consumes;
+    private final boolean                single;
+    private final Function<Flux, Object> resultConverter;
+    private final Type                   responseType;
+    private final boolean                byteArrayResponse;
+    private final ObjectReader           responseReader;
+    private final String                 metricName;
+    private final Hedged                 hedged;
+
+    private CallPlan(Method method,
+                     JaxRsMeta meta,
+                     ObjectMapper objectMapper,
+                     RequestParameterSerializers requestParameterSerializers,
+                     BiPredicate<Class<?>, Annotation[]> isBodyArg) {
+        this.method = method;
+        this.meta = meta;
+
+        String path = meta.getFullPath();
+        List<String>       literalList  = new ArrayList<>();
+        List<PathVariable> variableList = new ArrayList<>();
+        splitPath(path, literalList, variableList);
+        this.literals = literalList.toArray(String[]::new);
+        this.pathVariables = variableList.toArray(PathVariable[]::new);
+        this.pathHasQuery = path.contains("?");
+
+        Class<?>[]         types       = method.getParameterTypes();
+        Annotation[][]     annotations = method.getParameterAnnotations();
+        List<UriArg>       uriList     = new ArrayList<>();
+        List<HeaderArg>    headerList  = new ArrayList<>();
+        List<CustomArg>    customList  = new ArrayList<>();
+        List<ContentArg>   contentList = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            uriList.addAll(uriArgsOf(i, types[i], annotations[i]));
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof HeaderParam headerParam) {
+                    headerList.add(new HeaderArg(i, headerParam.value(), false));
+                } else if (annotation instanceof CookieParam cookieParam) {
+                    headerList.add(new HeaderArg(i, cookieParam.value(), true));
+                }
+            }
+            RequestParameterSerializer<?> serializer = requestParameterSerializers.getSerializer(types[i]);
+            if (serializer != null) {
+                customList.add(new CustomArg(i, serializer));
+            }
+            FormParam formParam = formParam(annotations[i]);
+            if (formParam != null) {
+                contentList.add(new ContentArg(i, formParam));
+            } else if (isBodyArg.test(types[i], annotations[i])) {
+                contentList.add(new ContentArg(i, null));
+            }
+        }
+        this.uriArgs = uriList.toArray(UriArg[]::new);
+        this.headerArgs = headerList.toArray(HeaderArg[]::new);
+        this.customArgs = customList.toArray(CustomArg[]::new);
+        this.contentArgs = contentList.toArray(ContentArg[]::new);
+
+        Consumes consumesAnnotation = method.getAnnotation(Consumes.class);
+        this.consumes = consumesAnnotation != null && consumesAnnotation.value().length != 0 ? consumesAnnotation.value()[0] : null;
+
+        this.single = FluxRxConverter.isSingleType(method.getReturnType());
+        this.resultConverter = FluxRxConverter.converterFromFlux(method.getReturnType());
+        this.responseType = ReflectionUtil.getTypeOfFluxOrMono(method);
+        this.byteArrayResponse = responseType.equals(byte[].class);
+        this.responseReader = objectMapper.readerFor(TypeFactory.defaultInstance().constructType(responseType));
+
+        this.metricName = metricName(meta.getHttpMethod() + " " + path, meta);
+
+        this.hedged = method.getAnnotation(Hedged.class);
+        if (hedged != null && !HttpMethod.GET.equals(meta.getHttpMethod())) {
+            throw new IllegalArgumentException(String.format("Only GET calls can be hedged, but %s is a %s call", method, meta.getHttpMethod()));
+        }
+    }
+
+    /**
+     * Prepare the call of a client method.
+     *
+     * @param method the method
+     * @param meta the meta of the method
+     * @param objectMapper the mapper reading the responses
+     * @param requestParameterSerializers the serializers of custom params
+     * @param isBodyArg checks if a param is the body of the request
+     * @return the call plan
+     */
+    static CallPlan create(Method method,
+                           JaxRsMeta meta,
+                           ObjectMapper objectMapper,
+                           RequestParameterSerializers requestParameterSerializers,
+                           BiPredicate<Class<?>, Annotation[]> isBodyArg) {
+        return new CallPlan(method, meta, objectMapper, requestParameterSerializers, isBodyArg);
+    }
+
+    /**
+     * Split a path into the literal parts around its path params, so that there is one more literal than params.
+     */
+    private static void splitPath(String path, List<String> literals, List<PathVariable> variables) {
+        int literalStart = 0;
+        int pos          = path.indexOf('{');
+        while (pos != -1) {
+            int end = variableEnd(path, pos);
+            if (end == -1) {
+                break;
+            }
+            literals.add(path.substring(literalStart, pos));
+            String variable = path.substring(pos + 1, end);
+            int    colon    = variable.indexOf(':');
+            String name     = (colon == -1 ? variable : variable.substring(0, colon)).trim();
+            // A param matching any characters may span several segments, so its slashes are kept
+            boolean keepSlashes = colon != -1 && variable.substring(colon + 1).trim().equals(".*");
+            variables.add(new PathVariable(name, path.substring(pos, end + 1), keepSlashes));
+            literalStart = end + 1;
+            pos = path.indexOf('{', literalStart);
+        }
+        literals.add(path.substring(literalStart));
+    }
+
+    /**
+     * Find the brace closing a path param, skipping braces nested in its regex.
+     */
+    private static int variableEnd(String path, int start) {
+        int depth = 0;
+        for (int i = start; i < path.length(); i++) {
+            char character = path.charAt(i);
+            if (character == '{') {
+                depth++;
+            } else if (character == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<UriArg> uriArgsOf(int index, Class<?> type, Annotation[] annotations) {
+        List<UriArg> args = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof QueryParam queryParam) {
+                args.add(new UriArg(index, UriArg.Kind.QUERY, queryParam.value(), null, null));
+            } else if (annotation instanceof PathParam pathParam) {
+                args.add(new UriArg(index, UriArg.Kind.PATH, pathParam.value(), pathVariableIndexes(pathParam.value()), null));
+            } else if (annotation instanceof BeanParam && index != -1) {
+                args.add(new UriArg(index, UriArg.Kind.BEAN, null, null, beanProperties(type)));
+            }
+        }
+        return args;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BeanProperty[] beanProperties(Class beanParamType) {
+        List<BeanProperty> properties = new ArrayList<>();
+        for (Field field : getDeclaredFieldsFromClassAndAncestors(beanParamType)) {
+            Optional<Function<Object, Object>> optionalGetter = ReflectionUtil.getter(beanParamType, field.getName());
+            optionalGetter.ifPresent(getter -> properties.add(new BeanProperty(getter,
+                uriArgsOf(-1, field.getType(), field.getAnnotations()).toArray(UriArg[]::new))));
+        }
+        return properties.toArray(BeanProperty[]::new);
+    }
+
+    /**
+     * Recursive function getting all declared fields from the passed in class and its ancestors.
+     *
+     * @param clazz the clazz fetching fields from
+     * @return set of fields
+     */
+    private static Set<Field> getDeclaredFieldsFromClassAndAncestors(Class<?> clazz) {
+        final HashSet<Field> declaredFields = new HashSet<>(asList(clazz.getDeclaredFields()));
+
+        if (clazz.getSuperclass() == null || Object.class.equals(clazz.getSuperclass())) {
+            return declaredFields;
+        }
+        return Sets.union(getDeclaredFieldsFromClassAndAncestors(clazz.getSuperclass()), declaredFields);
+    }
+
+    private int[] pathVariableIndexes(String name) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < pathVariables.length; i++) {
+            if (pathVariables[i].name().equals(name)) {
+                indexes.add(i);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static FormParam formParam(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof FormParam formParam) {
+                return formParam;
+            }
+        }
+        return null;
+    }
+
+    Method method() {
+        return method;
+    }
+
+    JaxRsMeta meta() {
+        return meta;
+    }
+
+    /**
+     * The literal parts of the path, around the path params.
+     */
+    String[] literals() {
+        return literals;
+    }
+
+    PathVariable[] pathVariables() {
+        return pathVariables;
+    }
+
+    boolean pathHasQuery() {
+        return pathHasQuery;
+    }
+
+    UriArg[] uriArgs() {
+        return uriArgs;
+    }
+
+    HeaderArg[] headerArgs() {
+        return headerArgs;
+    }
+
+    CustomArg[] customArgs() {
+        return customArgs;
+    }
+
+    ContentArg[] contentArgs() {
+        return contentArgs;
+    }
+
+    /**
+     * The content type of the request body given by {@link Consumes}, or null if there is none.
+     */
+    String consumes() {
+        return consumes;
+    }
+
+    boolean single() {
+        return single;
+    }
+
+    /**
+     * Converts the result of the call to the return type of the method.
+     */
+    Function<Flux, Object> resultConverter() {
+        return resultConverter;
+    }
+
+    Type responseType() {
+        return responseType;
+    }
+
+    boolean byteArrayResponse() {
+        return byteArrayResponse;
+    }
+
+    ObjectReader responseReader() {
+        return responseReader;
+    }
+
+    String metricName() {
+        return metricName;
+    }
+
+    /**
+     * Get the name of the metric of the calls of a method. Calls of deprecated methods are marked with an extra label.
+     *
+     * @param key the http method and path of the call
+     * @param meta the meta of the method
+     * @return the metric name
+     */
+    static String metricName(String key, JaxRsMeta meta) {
+        return "OUT_res:" + key + (meta.isDeprecated() ? "_deprecated:true" : "");
+    }
+
+    /**
+     * The hedging of the call given by {@link Hedged}, or null if there is none.
+     */
+    Hedged hedged() {
+        return hedged;
+    }
+
+    /**
+     * A path param of the path.
+     *
+     * @param name the name of the param
+     * @param text the param as written in the path, which is kept when no argument is bound to it
+     * @param keepSlashes whether slashes in the value are kept, rather than encoded
+     */
+    record PathVariable(String name, String text, boolean keepSlashes) {
+    }
+
+    /**
+     * An argument bound to the uri, either as a query param, as a path param, or as a bean of such params.
+     *
+     * @param index the index of the argument, or -1 for a property of a bean param
+     * @param kind the kind of param
+     * @param name the name of a query or path param
+     * @param pathVariables the indexes of the path variables of a path param
+     * @param properties the properties of a bean param
+     */
+    record UriArg(int index, Kind kind, String name, int[] pathVariables, BeanProperty[] properties) {
+        enum Kind {
+            QUERY,
+            PATH,
+            BEAN
+        }
+    }
+
+    /**
+     * A property of a bean param, bound to the uri by the query and path params of its field.
+     */
+    record BeanProperty(Function<Object, Object> getter, UriArg[] uriArgs) {
+    }
+
+    /**
+     * An argument bound to a header or to a cookie.
+     */
+    record HeaderArg(int index, String name, boolean cookie) {
+    }
+
+    /**
+     * An argument bound to the request by a {@link RequestParameterSerializer}.
+     */
+    record CustomArg(int index, RequestParameterSerializer<?> serializer) {
+    }
+
+    /**
+     * An argument bound to the body, either as a form param, or as the whole body if the form param is null.
+     */
+    record ContentArg(int index, FormParam formParam) {
+    }
+}
@@ -0,0 +1,177 @@
+package se.fortnox.reactivewizard.client;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.fortnox.reactivewizard.metrics.HealthRecorder;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops the calls of a client to a server that fails or slows down, so that the calls fail fast rather than add to
+ * the load of the server and hold the connections of the client.
+ *
+ * <p>While closed, the outcomes of the last calls are kept in a window, and the breaker opens when too many of them
+ * failed or were slow. While open, all calls are rejected. After a while the breaker lets a few trial calls through,
+ * and closes again if their outcomes are below the thresholds, or opens again otherwise.</p>
+ *
+ * <p>The state is reported to the {@link HealthRecorder}, which is unhealthy while the breaker is open, and as a gauge
+ * of 0 for closed, 1 for open and 2 for half open.</p>
+ */
+class CircuitBreaker {
+    private static final Logger LOG    = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final byte   FAILED = 1;
+    private static final byte   SLOW   = 2;
+
+    private final String         name;
+    private final byte[]         outcomes;
+    private final int            minimumCalls;
+    private final int            failureRatePercent;
+    private final long           slowCallNanos;
+    private final int            slowCallRatePercent;
+    private final long           openNanos;
+    private final int            halfOpenCalls;
+    private final LongSupplier   nanoTime;
+    private final HealthRecorder healthRecorder;
+    private final Counter        rejected;
+    private       State          state = State.CLOSED;
+    private       long           openUntil;
+    private       int            next;
+    private       int            calls;
+    private       int            failures;
+    private       int            slowCalls;
+    private       int            permitted;
+
+    CircuitBreaker(String name, HttpClientConfig config, HealthRecorder healthRecorder, LongSupplier nanoTime) {
+        if (config.getCircuitBreakerWindowSize() < 1 || config.getCircuitBreakerHalfOpenCalls() < 1) {
+            throw new IllegalArgumentException(String.format(
+                "Circuit breaker of %s must have a window and allow at least one trial call", name));
+        }
+        this.name = name;
+        this.outcomes = new byte[config.getCircuitBreakerWindowSize()];
+        this.minimumCalls = Math.min(Math.max(config.getCircuitBreakerMinimumCalls(), 1), outcomes.length);
+        this.failureRatePercent = config.getCircuitBreakerFailureRatePercent();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerSlowCallMs());
+        this.slowCallRatePercent = config.getCircuitBreakerSlowCallRatePercent();
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerOpenMs());
+        this.halfOpenCalls = Math.min(config.getCircuitBreakerHalfOpenCalls(), outcomes.length);
+        this.nanoTime = nanoTime;
+        this.healthRecorder = healthRecorder;
+
+        String         metricName = "OUT_circuit:" + name;
+        MetricRegistry registry   = Metrics.registry();
+        registry.remove(metricName + "_state");
+        registry.register(metricName + "_state", (Gauge<Integer>)() -> getState().ordinal());
+        this.rejected = registry.counter(metricName + "_rejected");
+        healthRecorder.logStatus(this, true);
+    }
+
+    /**
+     * Ask to make a call, which must be followed by {@link #record} or {@link #release} if it is permitted.
+     *
+     * @return whether the call is permitted
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openUntil < 0) {
+                rejected.inc();
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (permitted >= halfOpenCalls) {
+                rejected.inc();
+                return false;
+            }
+            permitted++;
+        }
+        return true;
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param durationNanos the duration of the call
+     * @param failed whether the call failed
+     */
+    synchronized void record(long durationNanos, boolean failed) {
+        byte outcome = (byte)((failed ? FAILED : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        if (state == State.CLOSED) {
+            add(outcome);
+            if (calls >= minimumCalls && isOverThresholds()) {
+                open();
+            }
+        } else if (state == State.HALF_OPEN) {
+            add(outcome);
+            if (calls >= halfOpenCalls) {
+                if (isOverThresholds()) {
+                    open();
+                } else {
+                    transition(State.CLOSED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give back the permit of a call that was cancelled before it had an outcome.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN && permitted > calls) {
+            permitted--;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void add(byte outcome) {
+        if (calls == outcomes.length) {
+            byte oldest = outcomes[next];
+            failures -= oldest & FAILED;
+            slowCalls -= (oldest & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        outcomes[next] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private boolean isOverThresholds() {
+        return failures * 100 >= failureRatePercent * calls || slowCalls * 100 >= slowCallRatePercent * calls;
+    }
+
+    private void open() {
+        LOG.warn("Opening circuit breaker of {} for {} ms after {} failed and {} slow calls of the last {}",
+            name, TimeUnit.NANOSECONDS.toMillis(openNanos), failures, slowCalls, calls);
+        openUntil = nanoTime.getAsLong() + openNanos;
+        transition(State.OPEN);
+    }
+
+    private void transition(State newState) {
+        state = newState;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        permitted = 0;
+        if (newState == State.CLOSED) {
+            LOG.info("Closing circuit breaker of {}", name);
+        }
+        healthRecorder.logStatus(this, newState != State.OPEN);
+    }
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
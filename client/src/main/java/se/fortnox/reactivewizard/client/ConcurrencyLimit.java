@@ -0,0 +1,83 @@
+package se.fortnox.reactivewizard.client;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+/**
+ * Limits the number of calls of a client in flight, and adapts the limit to how the server copes with the calls. The
+ * limit grows by one for each limit's worth of calls that succeed while the limit is in use, and shrinks by a tenth for
+ * each call that fails or is slow, so that the client backs off from a server that is overloaded. Calls over the limit
+ * are rejected rather than queued for a connection.
+ */
+class ConcurrencyLimit {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int    MIN_LIMIT     = 1;
+
+    private final int     maxLimit;
+    private final Counter rejected;
+    private       double  limit;
+    private       int     inFlight;
+
+    ConcurrencyLimit(String name, int initialLimit, int maxLimit) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(String.format(
+                "Concurrency limit of %s must start at least at one and can not start above its max", name));
+        }
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+
+        String         metricName = "OUT_limit:" + name;
+        MetricRegistry registry   = Metrics.registry();
+        registry.remove(metricName + "_limit");
+        registry.register(metricName + "_limit", (Gauge<Integer>)this::getLimit);
+        registry.remove(metricName + "_inflight");
+        registry.register(metricName + "_inflight", (Gauge<Integer>)this::getInFlight);
+        this.rejected = registry.counter(metricName + "_rejected");
+    }
+
+    /**
+     * Ask to make a call, which must be followed by {@link #release} if it is permitted.
+     *
+     * @return whether the call is permitted
+     */
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int)limit) {
+            rejected.inc();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Release a permitted call, and adapt the limit to its outcome.
+     *
+     * @param overloaded whether the call failed or was slow
+     */
+    synchronized void release(boolean overloaded) {
+        if (overloaded) {
+            limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the limit is in use, or it would grow without bound while the load is low
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        inFlight--;
+    }
+
+    /**
+     * Release a permitted call that was cancelled before it had an outcome.
+     */
+    synchronized void cancel() {
+        inFlight--;
+    }
+
+    synchronized int getLimit() {
+        return (int)limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,136 @@
+package se.fortnox.reactivewizard.client;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.fortnox.reactivewizard.jaxrs.Hedged;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends a second attempt of a hedged GET call that has not answered within a delay, and uses the first successful
+ * response while the other attempt is cancelled. The attempts share the context of the call, so that the
+ * {@link LoadBalancer} sends them to different endpoints.
+ *
+ * <p>The second attempts are limited by a budget, to which each hedged call adds a share of an attempt, so that
+ * hedging does not multiply the load on a server that is slow for all calls. The delay is either fixed, or the 95th
+ * percentile of the response times measured for the call, which is refreshed once a second.</p>
+ */
+class Hedging {
+    private static final double MAX_TOKENS          = 10;
+    private static final int    MIN_SAMPLES         = 20;
+    private static final long   DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long   MIN_DELAY_NANOS     = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long   NOT_HEDGED          = -1;
+
+    private final boolean                    enabled;
+    private final long                       delayNanos;
+    private final double                     tokensPerCall;
+    private final LongSupplier               nanoTime;
+    private final Map<String, MeasuredDelay> measuredDelays = new ConcurrentHashMap<>();
+    private final Counter                    sent;
+    private final Counter                    overBudget;
+    private       double                     tokens         = MAX_TOKENS;
+
+    Hedging(String name, HttpClientConfig config, LongSupplier nanoTime) {
+        this.enabled = config.isHedgingEnabled();
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(config.getHedgingDelayMs());
+        this.tokensPerCall = config.getHedgingBudgetPercent() / 100.0;
+        this.nanoTime = nanoTime;
+
+        String         metricName = "OUT_hedge:" + name;
+        MetricRegistry registry   = Metrics.registry();
+        this.sent = registry.counter(metricName + "_sent");
+        this.overBudget = registry.counter(metricName + "_overbudget");
+    }
+
+    /**
+     * Make a call, hedging it if it is a hedged call.
+     *
+     * @param plan the plan of the call
+     * @param attempt makes an attempt of the call
+     * @param <T> the type of the response
+     * @return the response of the first successful attempt, or the error of the last failed attempt
+     */
+    <T> Mono<T> call(CallPlan plan, Mono<T> attempt) {
+        Hedged hedged = plan.hedged();
+        if (hedged == null && !(enabled && HttpMethod.GET.equals(plan.meta().getHttpMethod()))) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            long delay = hedged != null ? TimeUnit.MILLISECONDS.toNanos(hedged.delayMs()) : delayNanos;
+            if (delay <= 0) {
+                delay = measuredDelay(plan.metricName());
+            }
+            deposit();
+            return delay == NOT_HEDGED ? attempt : hedge(attempt, Duration.ofNanos(delay));
+        });
+    }
+
+    /**
+     * Make an attempt, and a second attempt if the first has not answered within a delay and the budget allows it.
+     * An attempt failing while the other is in flight is ignored, and an attempt failing before the second attempt is
+     * sent fails the call right away, to be retried as usual.
+     */
+    <T> Mono<T> hedge(Mono<T> attempt, Duration delay) {
+        return Mono.defer(() -> {
+            AtomicInteger pending = new AtomicInteger(1);
+            Mono<T> second = Mono.delay(delay)
+                .filter(tick -> tryWithdraw())
+                .flatMap(tick -> {
+                    pending.incrementAndGet();
+                    sent.inc();
+                    return attempt;
+                });
+            return Flux.merge(attempt.materialize(), second.materialize())
+                .filter(signal -> signal.isOnNext() || (signal.isOnError() && pending.decrementAndGet() == 0))
+                .next()
+                .<T>dematerialize()
+                .contextWrite(context -> context.put(LoadBalancer.LAST_ENDPOINT, new AtomicReference<InetSocketAddress>()));
+        });
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(MAX_TOKENS, tokens + tokensPerCall);
+    }
+
+    private synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            overBudget.inc();
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Get the 95th percentile of the response times of a call, or {@link #NOT_HEDGED} until enough calls are measured.
+     */
+    private long measuredDelay(String metricName) {
+        long          now   = nanoTime.getAsLong();
+        MeasuredDelay delay = measuredDelays.get(metricName);
+        if (delay == null || now - delay.measuredAt() >= DELAY_REFRESH_NANOS) {
+            Timer timer = Metrics.registry().timer(metricName);
+            long  nanos = timer.getCount() < MIN_SAMPLES
+                ? NOT_HEDGED
+                : Math.max((long)timer.getSnapshot().get95thPercentile(), MIN_DELAY_NANOS);
+            delay = new MeasuredDelay(nanos, now);
+            measuredDelays.put(metricName, delay);
+        }
+        return delay.nanos();
+    }
+
+    private record MeasuredDelay(long nanos, long measuredAt) {
+    }
+}
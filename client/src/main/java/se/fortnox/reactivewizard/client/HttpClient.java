@@ -3,12 +3,11 @@ package se.fortnox.reactivewizard.client;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.StreamReadConstraints;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.type.TypeFactory;
-import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.timeout.ReadTimeoutException;
@@ -22,18 +21,15 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 import se.fortnox.reactivewizard.jaxrs.ByteBufCollector;
 import se.fortnox.reactivewizard.jaxrs.FieldError;
+import se.fortnox.reactivewizard.jaxrs.Hedged;
 import se.fortnox.reactivewizard.jaxrs.JaxRsMeta;
 import se.fortnox.reactivewizard.jaxrs.RequestLogger;
 import se.fortnox.reactivewizard.jaxrs.WebException;
 import se.fortnox.reactivewizard.metrics.HealthRecorder;
 import se.fortnox.reactivewizard.metrics.Metrics;
-import se.fortnox.reactivewizard.util.FluxRxConverter;
 import se.fortnox.reactivewizard.util.JustMessageException;
 import se.fortnox.reactivewizard.util.ReactiveDecorator;
-import se.fortnox.reactivewizard.util.ReflectionUtil;
 
-import javax.ws.rs.BeanParam;
-import javax.ws.rs.Consumes;
 import javax.ws.rs.CookieParam;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.HeaderParam;
@@ -41,8 +37,8 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -59,7 +55,6 @@ import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -67,7 +62,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 import static io.netty.handler.codec.http.HttpMethod.POST;
 import static io.netty.handler.codec.http.HttpResponseStatus.GATEWAY_TIMEOUT;
@@ -84,9 +78,9 @@ import static se.fortnox.reactivewizard.client.HttpClientConfig.DEFAULT_TIMEOUT_
 
 public class HttpClient implements InvocationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(HttpClient.class);
-    private static final Class BYTEARRAY_TYPE = (new byte[0]).getClass();
     private static final String COOKIE = "Cookie";
-    private static final String QUOTE = "\"";
+    private static final char QUOTE = '"';
+    private static final String NULL = "null";
     private static final String ERROR_CALLING_OTHER_SERVICE = """
         Error calling other service:
         \tResponse Status: %d
@@ -103,8 +97,12 @@ public class HttpClient implements InvocationHandler {
     private final ReactorRxClientProvider clientProvider;
     private final ObjectMapper objectMapper;
     private final RequestLogger requestLogger;
-    private final Map<Class<?>, List<HttpClient.BeanParamProperty>> beanParamCache = new ConcurrentHashMap<>();
     private final Map<Method, JaxRsMeta> jaxRsMetaMap = new ConcurrentHashMap<>();
+    private final Map<Method, CallPlan> callPlans = new ConcurrentHashMap<>();
+    private final boolean deserializesStrings;
+    private final LoadBalancer loadBalancer;
+    private final CallGuard callGuard;
+    private final Hedging hedging;
     private int timeout = DEFAULT_TIMEOUT_MS;
     private TemporalUnit timeoutUnit = ChronoUnit.MILLIS;
     private final Duration retryDuration;
@@ -130,7 +128,12 @@ public class HttpClient implements InvocationHandler {
         this.requestParameterSerializers = requestParameterSerializers;
 
         serverInfo = InetSocketAddress.createUnresolved(config.getHost(), config.getPort());
+        loadBalancer = new LoadBalancer(config);
+        String clientName = config.getHost() + ":" + config.getPort();
+        callGuard = clientProvider.callGuardFor(serverInfo, config);
+        hedging = new Hedging(clientName, config, System::nanoTime);
         collector = new ByteBufCollector(config.getMaxResponseSize());
+        deserializesStrings = overridesStringDeserialize();
         this.preRequestHooks = preRequestHooks;
         this.retryDuration = Duration.ofMillis(config.getRetryDelayMs());
         setTimeout(config.getTimeoutMs(), ChronoUnit.MILLIS);
@@ -171,8 +174,21 @@ public class HttpClient implements InvocationHandler {
         headers.forEach(requestLogger::addRedactedHeaderClient);
     }
 
+    /**
+     * Create a client of a resource interface. The plans of hedged calls are created right away, so that hedging that
+     * is not supported by a call fails here rather than on its first call.
+     *
+     * @param jaxRsInterface the resource interface
+     * @param <T> the type of the resource interface
+     * @return the client
+     */
     @SuppressWarnings("unchecked")
     public <T> T create(Class<T> jaxRsInterface) {
+        for (Method method : jaxRsInterface.getMethods()) {
+            if (method.isAnnotationPresent(Hedged.class)) {
+                callPlan(method);
+            }
+        }
         return (T) Proxy.newProxyInstance(jaxRsInterface.getClassLoader(), new Class[]{jaxRsInterface}, this);
     }
 
@@ -182,33 +198,43 @@ public class HttpClient implements InvocationHandler {
             arguments = new Object[0];
         }
 
+        CallPlan       plan    = callPlan(method);
         RequestBuilder request = createRequest(method, arguments);
 
         addDevOverrides(request);
         addAuthenticationHeaders(request);
 
-        reactor.netty.http.client.HttpClient rxClient = clientProvider.clientFor(request.getServerInfo());
+        Mono<RwHttpClientResponse> response = submit(request);
 
-        Mono<RwHttpClientResponse> response = request.submit(rxClient, request);
-
-        Class<?> returnType = method.getReturnType();
-
-        Mono<Response<Flux<?>>> responseWithResult = createResponseWithResult(method, request, response);
+        Mono<Response<Flux<?>>> responseWithResult = createResponseWithResult(plan, request, response);
         Flux<?> resultOnly = responseWithResult.flatMapMany(Response::getBody);
 
-        Function<Flux, Object> converter = FluxRxConverter.converterFromFlux(returnType);
-        return ReactiveDecorator.decorated(converter.apply(resultOnly), responseWithResult);
+        return ReactiveDecorator.decorated(plan.resultConverter().apply(resultOnly), responseWithResult);
     }
 
-    private Mono<Response<Flux<?>>> createResponseWithResult(Method method, RequestBuilder request, Mono<RwHttpClientResponse> responseMono) {
-        boolean isSingle = FluxRxConverter.isSingleType(method.getReturnType());
+    /**
+     * Submit a request to its server, or to an endpoint chosen for each attempt when the client has endpoints and the
+     * server has not been overridden by the dev settings or a pre request hook. The timeout is part of each attempt, so
+     * that a timed out attempt fails its endpoint.
+     */
+    private Mono<RwHttpClientResponse> submit(RequestBuilder request) {
+        Duration attemptTimeout = Duration.of(timeout, timeoutUnit);
+        if (!loadBalancer.hasEndpoints() || request.getServerInfo() != serverInfo) {
+            return request.submit(clientProvider.clientFor(request.getServerInfo()), request).timeout(attemptTimeout);
+        }
+        return loadBalancer.call(endpoint -> request.submitTo(clientProvider.clientFor(endpoint), endpoint).timeout(attemptTimeout),
+            response -> response.getHttpClientResponse().status().code() < INTERNAL_SERVER_ERROR.code());
+    }
+
+    private Mono<Response<Flux<?>>> createResponseWithResult(CallPlan plan, RequestBuilder request, Mono<RwHttpClientResponse> responseMono) {
+        Method method = plan.method();
         Mono<Response<Flux<?>>> result = responseMono.flatMap(response -> {
             Mono<Response<Flux<?>>> error = handleError(request, response);
             if (error != null) {
                 return error;
             }
             Flux<Object> body;
-            if (isSingle) {
+            if (plan.single()) {
                 body = parseResponseSingle(method, response);
             } else {
                 body = parseResponseStream(method, response);
@@ -217,8 +243,8 @@ public class HttpClient implements InvocationHandler {
             return Mono.just(new Response<>(response.getHttpClientResponse(), body));
         });
 
-        JaxRsMeta meta = getJaxRsMeta(method);
-        return withRetry(request, measure(request, result, meta).timeout(Duration.of(timeout, timeoutUnit)))
+        Mono<Response<Flux<?>>> attempt = callGuard.call(measure(request, result, getJaxRsMeta(method)));
+        return withRetry(request, hedging.call(plan, attempt))
             .onErrorResume(e -> convertError(request, e));
     }
 
@@ -288,11 +314,38 @@ public class HttpClient implements InvocationHandler {
     }
 
     protected Flux<Object> parseResponseSingle(Method method, RwHttpClientResponse response) {
-        if (expectsByteArrayResponse(method)) {
+        CallPlan plan = callPlan(method);
+        if (plan.byteArrayResponse()) {
             return Flux.from(collector.collectBytes(response.getContent()));
         }
-        return Flux.from(collector.collectString(response.getContent())
-            .flatMap(stringContent -> this.deserialize(method, stringContent)));
+        if (deserializesStrings) {
+            return Flux.from(collector.collectString(response.getContent())
+                .flatMap(stringContent -> this.deserialize(method, stringContent)));
+        }
+        return Flux.from(collector.collectByteBuf(response.getContent()))
+            .flatMap(content -> {
+                try {
+                    return deserialize(method, content);
+                } finally {
+                    content.release();
+                }
+            });
+    }
+
+    /**
+     * Check if a subclass overrides {@link #deserialize(Method, String)}, in which case responses are still decoded to a
+     * String and passed to it.
+     */
+    private boolean overridesStringDeserialize() {
+        for (Class<?> cls = getClass(); !HttpClient.class.equals(cls); cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod("deserialize", Method.class, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden by this class
+            }
+        }
+        return false;
     }
 
     private String resolveContentType(Method method, RwHttpClientResponse response) {
@@ -302,7 +355,7 @@ public class HttpClient implements InvocationHandler {
             .orElse(null);
 
         // Override response content-type if resource method is annotated with a non-empty @Produces
-        JaxRsMeta jaxRsMeta = new JaxRsMeta(method);
+        JaxRsMeta jaxRsMeta = getJaxRsMeta(method);
         String overridingContentType = jaxRsMeta.getProduces();
         if (!isNullOrEmpty(overridingContentType) && jaxRsMeta.isProducesAnnotationPresent()) {
             if (!overridingContentType.equals(contentType)) {
@@ -319,18 +372,13 @@ public class HttpClient implements InvocationHandler {
         String contentType = resolveContentType(method, response);
 
         if (APPLICATION_JSON.equals(contentType)) {
-            JsonArrayDeserializer deserializer = new JsonArrayDeserializer(objectMapper, method);
+            JsonArrayDeserializer deserializer = new JsonArrayDeserializer(objectMapper, callPlan(method).responseReader());
             return response.getContent().asByteArray().concatMap(deserializer::process);
         } else {
             return response.getContent().asByteArray().cast(Object.class);
         }
     }
 
-    private boolean expectsByteArrayResponse(Method method) {
-        Type type = ReflectionUtil.getTypeOfFluxOrMono(method);
-        return type.equals(BYTEARRAY_TYPE);
-    }
-
     private void addDevOverrides(RequestBuilder fullRequest) {
         if (config.getDevServerInfo() != null) {
             fullRequest.setServerInfo(config.getDevServerInfo());
@@ -381,17 +429,15 @@ public class HttpClient implements InvocationHandler {
      * @param meta Endpoint meta data
      */
     protected <T> Mono<T> measure(RequestBuilder request, Mono<T> output, JaxRsMeta meta) {
-        String metricName = "OUT_res:" + request.getKey();
-
-        if (meta.isDeprecated()) {
-            metricName += "_deprecated:true";
-        }
-
-        return Metrics.get(metricName).measure(output);
+        return Metrics.get(CallPlan.metricName(request.getKey(), meta)).measure(output);
     }
 
     protected Mono<Response<Flux<?>>> withRetry(RequestBuilder fullReq, Mono<Response<Flux<?>>> responseMono) {
         return responseMono.retryWhen(Retry.backoff(config.getRetryCount(), this.retryDuration).filter(throwable -> {
+            if (CallGuard.isRejection(throwable)) {
+                // Don't retry calls stopped by the circuit breaker or the concurrency limit, as that adds to the load they shed
+                return false;
+            }
             if (fullReq.getHttpMethod().equals(POST)) {
                 // Don't retry if it was a POST, as it is not idempotent
                 return false;
@@ -426,19 +472,20 @@ public class HttpClient implements InvocationHandler {
         if (!requestBuilder.canHaveBody() || requestBuilder.hasContent()) {
             return;
         }
-        Class<?>[] types = method.getParameterTypes();
-        Annotation[][] annotations = method.getParameterAnnotations();
-        StringBuilder output = new StringBuilder();
-        for (int i = 0; i < types.length; i++) {
-            Object value = arguments[i];
+        CallPlan plan = callPlan(method);
+        StringBuilder output = null;
+        for (CallPlan.ContentArg contentArg : plan.contentArgs()) {
+            Object value = arguments[contentArg.index()];
             if (value == null) {
                 continue;
             }
-            FormParam formParam = getFormParam(annotations[i]);
-            if (formParam != null) {
-                addFormParamToOutput(output, value, formParam);
+            if (contentArg.formParam() != null) {
+                if (output == null) {
+                    output = new StringBuilder();
+                }
+                addFormParamToOutput(output, value, contentArg.formParam());
                 requestBuilder.getHeaders().put(CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
-            } else if (isBodyArg(types[i], annotations[i])) {
+            } else {
                 try {
                     if (!requestBuilder.getHeaders().containsKey(CONTENT_TYPE)) {
                         requestBuilder.getHeaders().put(CONTENT_TYPE, APPLICATION_JSON);
@@ -466,7 +513,7 @@ public class HttpClient implements InvocationHandler {
                 }
             }
         }
-        if (!output.isEmpty()) {
+        if (output != null && !output.isEmpty()) {
             requestBuilder.setContent(output.toString());
         }
     }
@@ -478,15 +525,6 @@ public class HttpClient implements InvocationHandler {
         output.append(formParam.value()).append("=").append(urlEncode(value.toString()));
     }
 
-    private FormParam getFormParam(Annotation[] annotations) {
-        for (Annotation annotation : annotations) {
-            if (annotation instanceof FormParam formParam) {
-                return formParam;
-            }
-        }
-        return null;
-    }
-
     protected boolean isBodyArg(@SuppressWarnings("unused") Class<?> cls, Annotation[] annotations) {
         for (Annotation annotation : annotations) {
             if (annotation instanceof QueryParam || annotation instanceof PathParam || annotation instanceof HeaderParam || annotation instanceof CookieParam) {
@@ -542,8 +580,29 @@ public class HttpClient implements InvocationHandler {
         return jaxRsMetaMap.computeIfAbsent(method, JaxRsMeta::new);
     }
 
+    /**
+     * Get the call plan of a method, preparing it from the meta of {@link #getJaxRsMeta(Method)} on the first call of
+     * the method.
+     */
+    private CallPlan callPlan(Method method) {
+        CallPlan plan = callPlans.get(method);
+        if (plan == null) {
+            plan = callPlan(method, getJaxRsMeta(method));
+        }
+        return plan;
+    }
+
+    private CallPlan callPlan(Method method, JaxRsMeta meta) {
+        return callPlans.computeIfAbsent(method, planMethod -> createCallPlan(planMethod, meta));
+    }
+
+    private CallPlan createCallPlan(Method method, JaxRsMeta meta) {
+        return CallPlan.create(method, meta, objectMapper, requestParameterSerializers, this::isBodyArg);
+    }
+
     protected RequestBuilder createRequest(Method method, Object[] arguments) {
         JaxRsMeta meta = getJaxRsMeta(method);
+        CallPlan  plan = callPlan(method, meta);
 
         RequestBuilder request = new RequestBuilder(serverInfo, meta.getHttpMethod(), meta.getFullPath());
 
@@ -562,12 +621,11 @@ public class HttpClient implements InvocationHandler {
             }
         }
 
-        setHeaderParams(request, method, arguments);
-        addCustomParams(request, method, arguments);
+        setHeaderParams(request, plan, arguments);
+        addCustomParams(request, plan, arguments);
 
-        Consumes consumes = method.getAnnotation(Consumes.class);
-        if (consumes != null && consumes.value().length != 0) {
-            request.addHeader("Content-Type", consumes.value()[0]);
+        if (plan.consumes() != null) {
+            request.addHeader("Content-Type", plan.consumes());
         }
 
         applyPreRequestHooks(request);
@@ -582,35 +640,28 @@ public class HttpClient implements InvocationHandler {
     }
 
     @SuppressWarnings("unchecked")
-    private void addCustomParams(RequestBuilder request, Method method, Object[] arguments) {
-        Class<?>[] types = method.getParameterTypes();
-        for (int i = 0; i < types.length; i++) {
-            RequestParameterSerializer serializer = requestParameterSerializers.getSerializer(types[i]);
-            if (serializer != null) {
-                serializer.addParameter(arguments[i], request);
-            }
+    private void addCustomParams(RequestBuilder request, CallPlan plan, Object[] arguments) {
+        for (CallPlan.CustomArg customArg : plan.customArgs()) {
+            RequestParameterSerializer serializer = customArg.serializer();
+            serializer.addParameter(arguments[customArg.index()], request);
         }
     }
 
-    private void setHeaderParams(RequestBuilder request, Method method, Object[] arguments) {
-        Class<?>[] types = method.getParameterTypes();
-        Annotation[][] annotations = method.getParameterAnnotations();
-        for (int i = 0; i < types.length; i++) {
-            Object value = arguments[i];
+    private void setHeaderParams(RequestBuilder request, CallPlan plan, Object[] arguments) {
+        for (CallPlan.HeaderArg headerArg : plan.headerArgs()) {
+            Object value = arguments[headerArg.index()];
             if (value == null) {
                 continue;
             }
-            for (Annotation annotation : annotations[i]) {
-                if (annotation instanceof HeaderParam headerParam) {
-                    request.addHeader(headerParam.value(), serialize(value));
-                } else if (annotation instanceof CookieParam cookieParam) {
-                    final String currentCookieValue = request.getHeaders().get(COOKIE);
-                    final String cookiePart = cookieParam.value() + "=" + serialize(value);
-                    if (currentCookieValue != null) {
-                        request.addHeader(COOKIE, format("%s; %s", currentCookieValue, cookiePart));
-                    } else {
-                        request.addHeader(COOKIE, cookiePart);
-                    }
+            if (!headerArg.cookie()) {
+                request.addHeader(headerArg.name(), serialize(value));
+            } else {
+                final String currentCookieValue = request.getHeaders().get(COOKIE);
+                final String cookiePart = headerArg.name() + "=" + serialize(value);
+                if (currentCookieValue != null) {
+                    request.addHeader(COOKIE, format("%s; %s", currentCookieValue, cookiePart));
+                } else {
+                    request.addHeader(COOKIE, cookiePart);
                 }
             }
         }
@@ -620,30 +671,60 @@ public class HttpClient implements InvocationHandler {
         }
     }
 
+    /**
+     * Deserialize a response body given as a String.
+     *
+     * @param method the called method
+     * @param string the response body
+     * @return the deserialized value, or empty if there is no body
+     * @deprecated override {@link #deserialize(Method, ByteBuf)} instead. Responses are only decoded to a String and
+     *     passed to this method when a subclass overrides it, which costs a copy and a decoding of each response.
+     */
+    @Deprecated
     protected Mono<Object> deserialize(Method method, String string) {
-        if (string == null || string.isEmpty()) {
+        if (string == null) {
+            return Mono.empty();
+        }
+        return deserialize(method, Unpooled.wrappedBuffer(string.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Deserialize a response body directly from the received UTF-8 bytes, without copying or decoding them first. The
+     * buffer is released by the caller once this method returns, so the value must be read before that.
+     *
+     * @param method the called method
+     * @param content the response body
+     * @return the deserialized value, or empty if there is no body
+     */
+    protected Mono<Object> deserialize(Method method, ByteBuf content) {
+        if (content == null || !content.isReadable()) {
             return Mono.empty();
         }
-        Type type = ReflectionUtil.getTypeOfFluxOrMono(method);
+        CallPlan plan = callPlan(method);
+        Type     type = plan.responseType();
 
         if (Void.class.equals(type)) {
             return Mono.empty();
         }
 
-        if (String.class.equals(type) && !string.startsWith(QUOTE) && !"null".equalsIgnoreCase(string)) {
-            return just(string);
+        if (String.class.equals(type) && !isJsonStringOrNull(content)) {
+            return just(content.toString(StandardCharsets.UTF_8));
         }
 
-        try {
-            JavaType javaType = TypeFactory.defaultInstance().constructType(type);
-            ObjectReader reader = objectMapper.readerFor(javaType);
-            Object value = reader.readValue(string);
+        try (ByteBufInputStream inputStream = new ByteBufInputStream(content)) {
+            Object value = plan.responseReader().readValue((InputStream)inputStream);
             return Mono.justOrEmpty(value);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static boolean isJsonStringOrNull(ByteBuf content) {
+        int start = content.readerIndex();
+        return content.getByte(start) == QUOTE
+            || (content.readableBytes() == NULL.length() && NULL.equalsIgnoreCase(content.toString(start, NULL.length(), StandardCharsets.US_ASCII)));
+    }
+
     protected String encode(String path) {
         try {
             return new URI(null, null, path, null, null).toASCIIString().replaceAll("\\+", "%2B");
@@ -656,86 +737,20 @@ public class HttpClient implements InvocationHandler {
         return URLEncoder.encode(path, StandardCharsets.UTF_8);
     }
 
-    protected String getPath(Method method, Object[] arguments, JaxRsMeta meta) {
-        String path = meta.getFullPath();
-
-        StringBuilder query = null;
-        Class<?>[] types = method.getParameterTypes();
-        List<Object> args = new ArrayList<>(asList(arguments));
-        List<Annotation[]> argumentAnnotations = new ArrayList<>(asList(method.getParameterAnnotations()));
-        for (int i = 0; i < args.size(); i++) {
-            Object value = args.get(i);
-            for (Annotation annotation : argumentAnnotations.get(i)) {
-                if (annotation instanceof QueryParam queryParam) {
-                    if (value == null) {
-                        continue;
-                    }
-                    if (query == null) {
-                        query = new StringBuilder(path.contains("?") ? "&" : "?");
-                    } else {
-                        query.append('&');
-                    }
-                    query.append(queryParam.value());
-                    query.append('=');
-                    query.append(urlEncode(serialize(value)));
-                } else if (annotation instanceof PathParam pathParam) {
-                    if (value == null) {
-                        throw new IllegalArgumentException(
-                            format("Failed to send http request, unexpected null argument for path param '%s' when calling %s::%s",
-                                pathParam.value(),
-                                method.getDeclaringClass().getCanonicalName(),
-                                method.getName()));
-                    }
-                    if (path.contains("{" + pathParam.value() + ":.*}")) {
-                        path = path.replaceAll("\\{" + pathParam.value() + ":.*\\}", this.encode(this.serialize(value)));
-                    } else {
-                        path = path.replaceAll("\\{" + pathParam.value() + "\\}", this.urlEncode(this.serialize(value)));
-                    }
-                } else if (annotation instanceof BeanParam) {
-                    if (value == null) {
-                        continue;
-                    }
-                    beanParamCache
-                        .computeIfAbsent(types[i], this::getBeanParamGetters)
-                        .forEach(beanParamProperty -> {
-                            args.add(beanParamProperty.getter.apply(value));
-                            argumentAnnotations.add(beanParamProperty.annotations);
-                        });
-                }
-            }
-        }
-        if (query != null) {
-            return path + query;
-        }
-        return path;
-    }
-
-    private List<BeanParamProperty> getBeanParamGetters(Class beanParamType) {
-        List<BeanParamProperty> result = new ArrayList<>();
-        for (Field field : getDeclaredFieldsFromClassAndAncestors(beanParamType)) {
-            Optional<Function<Object, Object>> optionalGetter = ReflectionUtil.getter(beanParamType, field.getName());
-            optionalGetter.ifPresent(getter ->
-                result.add(new BeanParamProperty(
-                    getter,
-                    field.getAnnotations()
-                )));
-        }
-        return result;
-    }
-
     /**
-     * Recursive function getting all declared fields from the passed in class and its ancestors.
-     *
-     * @param clazz the clazz fetching fields from
-     * @return set of fields
+     * Get the path of a call, with its path and query params. The path is built from the call plan of the method, or
+     * from a plan of the given meta if it is not the meta of the plan.
      */
-    private static Set<Field> getDeclaredFieldsFromClassAndAncestors(Class clazz) {
-        final HashSet<Field> declaredFields = new HashSet<>(asList(clazz.getDeclaredFields()));
-
-        if (clazz.getSuperclass() == null || Object.class.equals(clazz.getSuperclass())) {
-            return declaredFields;
+    protected String getPath(Method method, Object[] arguments, JaxRsMeta meta) {
+        CallPlan plan = callPlan(method);
+        if (plan.meta() != meta) {
+            plan = createCallPlan(method, meta);
         }
-        return Sets.union(getDeclaredFieldsFromClassAndAncestors(clazz.getSuperclass()), declaredFields);
+        PathBuilder pathBuilder = new PathBuilder(plan);
+        for (CallPlan.UriArg uriArg : plan.uriArgs()) {
+            pathBuilder.bind(uriArg, arguments[uriArg.index()]);
+        }
+        return pathBuilder.build();
     }
 
     protected String serialize(Object value) {
@@ -825,13 +840,85 @@ public class HttpClient implements InvocationHandler {
         }
     }
 
-    private static class BeanParamProperty {
-        final Function<Object, Object> getter;
-        final Annotation[] annotations;
+    /**
+     * Builds the path of a call from its call plan. The properties of bean params are bound after all arguments, so
+     * that their query params come last.
+     */
+    private class PathBuilder {
+        private final CallPlan                plan;
+        private final String[]                pathValues;
+        private       StringBuilder           query;
+        private       List<Object>            beanValues;
+        private       List<CallPlan.UriArg[]> beanArgs;
+
+        private PathBuilder(CallPlan plan) {
+            this.plan = plan;
+            this.pathValues = new String[plan.pathVariables().length];
+        }
 
-        public BeanParamProperty(Function<Object, Object> getter, Annotation[] annotations) {
-            this.getter = getter;
-            this.annotations = annotations;
+        private void bind(CallPlan.UriArg uriArg, Object value) {
+            switch (uriArg.kind()) {
+                case QUERY -> {
+                    if (value == null) {
+                        return;
+                    }
+                    if (query == null) {
+                        query = new StringBuilder(plan.pathHasQuery() ? "&" : "?");
+                    } else {
+                        query.append('&');
+                    }
+                    query.append(uriArg.name());
+                    query.append('=');
+                    query.append(urlEncode(serialize(value)));
+                }
+                case PATH -> {
+                    if (value == null) {
+                        Method method = plan.method();
+                        throw new IllegalArgumentException(
+                            format("Failed to send http request, unexpected null argument for path param '%s' when calling %s::%s",
+                                uriArg.name(),
+                                method.getDeclaringClass().getCanonicalName(),
+                                method.getName()));
+                    }
+                    for (int pathVariable : uriArg.pathVariables()) {
+                        String serialized = serialize(value);
+                        pathValues[pathVariable] = plan.pathVariables()[pathVariable].keepSlashes() ? encode(serialized) : urlEncode(serialized);
+                    }
+                }
+                case BEAN -> {
+                    if (value == null) {
+                        return;
+                    }
+                    if (beanValues == null) {
+                        beanValues = new ArrayList<>();
+                        beanArgs = new ArrayList<>();
+                    }
+                    for (CallPlan.BeanProperty property : uriArg.properties()) {
+                        beanValues.add(property.getter().apply(value));
+                        beanArgs.add(property.uriArgs());
+                    }
+                }
+            }
+        }
+
+        private String build() {
+            if (beanValues != null) {
+                for (int i = 0; i < beanValues.size(); i++) {
+                    for (CallPlan.UriArg uriArg : beanArgs.get(i)) {
+                        bind(uriArg, beanValues.get(i));
+                    }
+                }
+            }
+            String[]      literals = plan.literals();
+            StringBuilder path     = new StringBuilder(literals[0]);
+            for (int i = 0; i < pathValues.length; i++) {
+                path.append(pathValues[i] != null ? pathValues[i] : plan.pathVariables()[i].text());
+                path.append(literals[i + 1]);
+            }
+            if (query != null) {
+                path.append(query);
+            }
+            return path.toString();
         }
     }
 }
@@ -11,6 +11,7 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -57,6 +58,27 @@ public class HttpClientConfig {
     private long connectionMaxIdleTimeInMs         = TimeUnit.MILLISECONDS.convert(10, MINUTES);
     private int  numberOfConnectionFailuresAllowed = 10;
 
+    private List<String>  endpoints                = List.of();
+    private LoadBalancing loadBalancing            = LoadBalancing.ROUND_ROBIN;
+    private int           outlierConsecutiveErrors = 5;
+    private int           outlierEjectionMs        = 30_000;
+
+    private boolean circuitBreakerEnabled             = false;
+    private int     circuitBreakerWindowSize          = 100;
+    private int     circuitBreakerMinimumCalls        = 20;
+    private int     circuitBreakerFailureRatePercent  = 50;
+    private int     circuitBreakerSlowCallMs          = 5000;
+    private int     circuitBreakerSlowCallRatePercent = 80;
+    private int     circuitBreakerOpenMs              = 10_000;
+    private int     circuitBreakerHalfOpenCalls       = 5;
+    private boolean adaptiveConcurrencyLimitEnabled   = false;
+    private int     initialConcurrencyLimit           = 20;
+    private int     maxConcurrencyLimit               = 200;
+
+    private boolean hedgingEnabled       = false;
+    private int     hedgingDelayMs       = 0;
+    private int     hedgingBudgetPercent = 10;
+
     private BasicAuthConfig basicAuth;
 
     public HttpClientConfig() {
@@ -244,4 +266,236 @@ public class HttpClientConfig {
     public void setNumberOfConnectionFailuresAllowed(int numberOfConnectionFailuresAllowed) {
         this.numberOfConnectionFailuresAllowed = numberOfConnectionFailuresAllowed;
     }
+
+    /**
+     * The endpoints that calls are spread over, as host:port, where the port defaults to the port of the client. The
+     * host of the client is still sent in the Host header. Without endpoints, all calls go to the host of the client.
+     *
+     * @return the endpoints
+     */
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<String> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * How calls are spread over the endpoints.
+     *
+     * @return the load balancing strategy
+     */
+    public LoadBalancing getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    public void setLoadBalancing(LoadBalancing loadBalancing) {
+        this.loadBalancing = loadBalancing;
+    }
+
+    /**
+     * The number of calls in a row that an endpoint may fail, with a connection error, a timeout or a server error,
+     * before it is ejected.
+     *
+     * @return the number of failed calls in a row
+     */
+    public int getOutlierConsecutiveErrors() {
+        return outlierConsecutiveErrors;
+    }
+
+    public void setOutlierConsecutiveErrors(int outlierConsecutiveErrors) {
+        this.outlierConsecutiveErrors = outlierConsecutiveErrors;
+    }
+
+    /**
+     * How long an ejected endpoint is left out, unless all endpoints are ejected.
+     *
+     * @return the ejection time in milliseconds
+     */
+    public int getOutlierEjectionMs() {
+        return outlierEjectionMs;
+    }
+
+    public void setOutlierEjectionMs(int outlierEjectionMs) {
+        this.outlierEjectionMs = outlierEjectionMs;
+    }
+
+    /**
+     * Whether the calls of the client are stopped by a circuit breaker while the server fails or is slow. Calls
+     * stopped by the breaker fail with 503 without being retried.
+     *
+     * @return whether the circuit breaker is enabled
+     */
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+    }
+
+    /**
+     * The number of the last calls that the failure and slow call rates of the circuit breaker are counted over.
+     *
+     * @return the size of the window
+     */
+    public int getCircuitBreakerWindowSize() {
+        return circuitBreakerWindowSize;
+    }
+
+    public void setCircuitBreakerWindowSize(int circuitBreakerWindowSize) {
+        this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+    }
+
+    /**
+     * The number of calls in the window before the circuit breaker may open.
+     *
+     * @return the minimum number of calls
+     */
+    public int getCircuitBreakerMinimumCalls() {
+        return circuitBreakerMinimumCalls;
+    }
+
+    public void setCircuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+        this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+    }
+
+    /**
+     * The percentage of calls failing with a connection error, a timeout or a server error at which the circuit
+     * breaker opens.
+     *
+     * @return the failure rate in percent
+     */
+    public int getCircuitBreakerFailureRatePercent() {
+        return circuitBreakerFailureRatePercent;
+    }
+
+    public void setCircuitBreakerFailureRatePercent(int circuitBreakerFailureRatePercent) {
+        this.circuitBreakerFailureRatePercent = circuitBreakerFailureRatePercent;
+    }
+
+    /**
+     * How long a call may take before it counts as slow, to the circuit breaker and to the concurrency limit.
+     *
+     * @return the duration of a slow call in milliseconds
+     */
+    public int getCircuitBreakerSlowCallMs() {
+        return circuitBreakerSlowCallMs;
+    }
+
+    public void setCircuitBreakerSlowCallMs(int circuitBreakerSlowCallMs) {
+        this.circuitBreakerSlowCallMs = circuitBreakerSlowCallMs;
+    }
+
+    /**
+     * The percentage of slow calls at which the circuit breaker opens.
+     *
+     * @return the slow call rate in percent
+     */
+    public int getCircuitBreakerSlowCallRatePercent() {
+        return circuitBreakerSlowCallRatePercent;
+    }
+
+    public void setCircuitBreakerSlowCallRatePercent(int circuitBreakerSlowCallRatePercent) {
+        this.circuitBreakerSlowCallRatePercent = circuitBreakerSlowCallRatePercent;
+    }
+
+    /**
+     * How long the circuit breaker stays open before it lets trial calls through.
+     *
+     * @return the open time in milliseconds
+     */
+    public int getCircuitBreakerOpenMs() {
+        return circuitBreakerOpenMs;
+    }
+
+    public void setCircuitBreakerOpenMs(int circuitBreakerOpenMs) {
+        this.circuitBreakerOpenMs = circuitBreakerOpenMs;
+    }
+
+    /**
+     * The number of trial calls that decide whether the circuit breaker closes again.
+     *
+     * @return the number of trial calls
+     */
+    public int getCircuitBreakerHalfOpenCalls() {
+        return circuitBreakerHalfOpenCalls;
+    }
+
+    public void setCircuitBreakerHalfOpenCalls(int circuitBreakerHalfOpenCalls) {
+        this.circuitBreakerHalfOpenCalls = circuitBreakerHalfOpenCalls;
+    }
+
+    /**
+     * Whether the calls of the client in flight are limited by a limit that backs off while the server fails or is
+     * slow. Calls over the limit fail with 503 without being retried.
+     *
+     * @return whether the concurrency limit is enabled
+     */
+    public boolean isAdaptiveConcurrencyLimitEnabled() {
+        return adaptiveConcurrencyLimitEnabled;
+    }
+
+    public void setAdaptiveConcurrencyLimitEnabled(boolean adaptiveConcurrencyLimitEnabled) {
+        this.adaptiveConcurrencyLimitEnabled = adaptiveConcurrencyLimitEnabled;
+    }
+
+    public int getInitialConcurrencyLimit() {
+        return initialConcurrencyLimit;
+    }
+
+    public void setInitialConcurrencyLimit(int initialConcurrencyLimit) {
+        this.initialConcurrencyLimit = initialConcurrencyLimit;
+    }
+
+    public int getMaxConcurrencyLimit() {
+        return maxConcurrencyLimit;
+    }
+
+    public void setMaxConcurrencyLimit(int maxConcurrencyLimit) {
+        this.maxConcurrencyLimit = maxConcurrencyLimit;
+    }
+
+    /**
+     * Whether all GET calls of the client are hedged, rather than only those annotated with
+     * {@link se.fortnox.reactivewizard.jaxrs.Hedged}. A hedged call that has not answered within a delay is sent a
+     * second time, and the first successful response is used.
+     *
+     * @return whether hedging is enabled
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    /**
+     * The time a hedged call waits for an answer before it is sent a second time, unless its annotation gives another
+     * delay. With a delay of 0 the delay is the 95th percentile of the response times of the call.
+     *
+     * @return the hedging delay in milliseconds
+     */
+    public int getHedgingDelayMs() {
+        return hedgingDelayMs;
+    }
+
+    public void setHedgingDelayMs(int hedgingDelayMs) {
+        this.hedgingDelayMs = hedgingDelayMs;
+    }
+
+    /**
+     * The number of second attempts that hedged calls may send, as a percentage of the hedged calls.
+     *
+     * @return the hedging budget in percent
+     */
+    public int getHedgingBudgetPercent() {
+        return hedgingBudgetPercent;
+    }
+
+    public void setHedgingBudgetPercent(int hedgingBudgetPercent) {
+        this.hedgingBudgetPercent = hedgingBudgetPercent;
+    }
 }
@@ -3,7 +3,6 @@ package se.fortnox.reactivewizard.client;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -13,7 +12,6 @@ import reactor.core.publisher.Flux;
 import se.fortnox.reactivewizard.util.ReflectionUtil;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,10 +23,16 @@ public class JsonArrayDeserializer {
     private int depth = -1;
 
     public JsonArrayDeserializer(ObjectMapper objectMapper, Method method) {
-        Type type = ReflectionUtil.getTypeOfFluxOrMono(method);
+        this(objectMapper, objectMapper.readerFor(TypeFactory.defaultInstance().constructType(ReflectionUtil.getTypeOfFluxOrMono(method))));
+    }
 
-        JavaType javaType = TypeFactory.defaultInstance().constructType(type);
-        reader   = objectMapper.readerFor(javaType);
+    /**
+     * Create a deserializer reading the items of the array with a reader.
+     * @param objectMapper the mapper creating the parser
+     * @param reader the reader of the items
+     */
+    public JsonArrayDeserializer(ObjectMapper objectMapper, ObjectReader reader) {
+        this.reader = reader;
         try {
             parser = objectMapper.getFactory().setCodec(objectMapper).createNonBlockingByteArrayParser();
             inputFeeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
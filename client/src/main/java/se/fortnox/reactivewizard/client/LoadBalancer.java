@@ -0,0 +1,240 @@
+package se.fortnox.reactivewizard.client;
+
+import com.google.common.net.HostAndPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Spreads the calls of a client over the endpoints of its config. Each endpoint keeps track of its calls in flight and
+ * of a moving average of its response times, which the {@link LoadBalancing} strategy chooses by. Endpoints without
+ * a response time yet are taken to be as fast as the average of the others.
+ *
+ * <p>Endpoints failing a number of calls in a row, with connection errors, timeouts or server errors, are ejected for a
+ * while and only used again if all endpoints are ejected.</p>
+ */
+class LoadBalancer {
+    private static final Logger LOG         = LoggerFactory.getLogger(LoadBalancer.class);
+    private static final double EWMA_WEIGHT = 0.3;
+
+    /**
+     * Key of an {@code AtomicReference<InetSocketAddress>} in the context of a call, holding the endpoint of the last
+     * attempt of the call. Attempts made in the same context go to another endpoint than the last one, if possible.
+     */
+    static final String LAST_ENDPOINT = LoadBalancer.class.getName() + ".lastEndpoint";
+
+    private final Endpoint[]    endpoints;
+    private final boolean       configured;
+    private final LoadBalancing loadBalancing;
+    private final int           outlierConsecutiveErrors;
+    private final long          outlierEjectionNanos;
+    private final LongSupplier  nanoTime;
+    private final AtomicInteger next = new AtomicInteger();
+
+    LoadBalancer(HttpClientConfig config, LongSupplier nanoTime) {
+        List<String> configuredEndpoints = config.getEndpoints();
+        this.configured = configuredEndpoints != null && !configuredEndpoints.isEmpty();
+        if (!configured) {
+            this.endpoints = new Endpoint[]{new Endpoint(InetSocketAddress.createUnresolved(config.getHost(), config.getPort()))};
+        } else {
+            this.endpoints = configuredEndpoints.stream()
+                .map(endpoint -> HostAndPort.fromString(endpoint).withDefaultPort(config.getPort()))
+                .map(hostAndPort -> new Endpoint(InetSocketAddress.createUnresolved(hostAndPort.getHost(), hostAndPort.getPort())))
+                .toArray(Endpoint[]::new);
+        }
+        this.loadBalancing = config.getLoadBalancing();
+        this.outlierConsecutiveErrors = config.getOutlierConsecutiveErrors();
+        this.outlierEjectionNanos = TimeUnit.MILLISECONDS.toNanos(config.getOutlierEjectionMs());
+        this.nanoTime = nanoTime;
+    }
+
+    LoadBalancer(HttpClientConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    /**
+     * Check if calls go to the endpoints of the config, rather than to its host. This is the case whenever there are
+     * endpoints in the config, even if there is only one.
+     *
+     * @return whether there are configured endpoints
+     */
+    boolean hasEndpoints() {
+        return configured;
+    }
+
+    /**
+     * Make a call to an endpoint chosen when the call is subscribed to, so that retries may go to another endpoint.
+     * Timeouts should be part of the call, so that they fail it. A call that is cancelled is only no longer in flight.
+     *
+     * @param call makes the call to an endpoint
+     * @param isSuccess checks if the endpoint answered the call successfully
+     * @param <T> the type of the response
+     * @return the response
+     */
+    <T> Mono<T> call(Function<InetSocketAddress, Mono<T>> call, Predicate<T> isSuccess) {
+        return Mono.deferContextual(context -> {
+            AtomicReference<InetSocketAddress> lastEndpoint = context.getOrDefault(LAST_ENDPOINT, null);
+            Endpoint                           endpoint     = choose(lastEndpoint != null ? lastEndpoint.get() : null);
+            if (lastEndpoint != null) {
+                lastEndpoint.set(endpoint.address);
+            }
+            long          start     = nanoTime.getAsLong();
+            AtomicBoolean completed = new AtomicBoolean();
+            endpoint.inFlight.incrementAndGet();
+            return call.apply(endpoint.address)
+                .doOnNext(response -> complete(endpoint, start, completed, isSuccess.test(response)))
+                .doOnError(error -> complete(endpoint, start, completed, false))
+                .doFinally(signal -> endpoint.inFlight.decrementAndGet());
+        });
+    }
+
+    Endpoint choose() {
+        return choose(null);
+    }
+
+    /**
+     * Choose an endpoint, other than an ejected endpoint or the endpoint to avoid unless there is no other choice.
+     *
+     * @param avoid the endpoint to avoid, or null
+     * @return the endpoint
+     */
+    Endpoint choose(InetSocketAddress avoid) {
+        long now = nanoTime.getAsLong();
+        return switch (loadBalancing) {
+            case ROUND_ROBIN -> chooseInTurn(now, avoid);
+            case POWER_OF_TWO_CHOICES -> chooseOfTwo(now, avoid);
+            case LEAST_LATENCY -> chooseFastest(now, avoid);
+        };
+    }
+
+    private Endpoint chooseInTurn(long now, InetSocketAddress avoid) {
+        int start = Math.floorMod(next.getAndIncrement(), endpoints.length);
+        for (int i = 0; i < endpoints.length; i++) {
+            Endpoint endpoint = endpoints[(start + i) % endpoints.length];
+            if (endpoint.isAvailable(now, avoid)) {
+                return endpoint;
+            }
+        }
+        return avoid != null ? chooseInTurn(now, null) : endpoints[start];
+    }
+
+    private Endpoint chooseOfTwo(long now, InetSocketAddress avoid) {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Endpoint          first  = endpoints[random.nextInt(endpoints.length)];
+        Endpoint          second = endpoints[random.nextInt(endpoints.length - 1)];
+        if (second == first) {
+            second = endpoints[endpoints.length - 1];
+        }
+        if (first.isAvailable(now, avoid) != second.isAvailable(now, avoid)) {
+            return first.isAvailable(now, avoid) ? first : second;
+        }
+        return first.inFlight.get() <= second.inFlight.get() ? first : second;
+    }
+
+    private Endpoint chooseFastest(long now, InetSocketAddress avoid) {
+        double   averageLatency = averageLatency();
+        Endpoint fastest        = null;
+        double   fastestCost    = Double.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isAvailable(now, avoid)) {
+                continue;
+            }
+            double latency = endpoint.measured ? endpoint.latencyEwma : averageLatency;
+            double cost    = latency * (endpoint.inFlight.get() + 1);
+            // An endpoint as fast as a measured one is preferred if it has not been measured yet
+            if (cost < fastestCost || (cost == fastestCost && !endpoint.measured && fastest.measured)) {
+                fastest = endpoint;
+                fastestCost = cost;
+            }
+        }
+        return fastest != null ? fastest : chooseInTurn(now, avoid);
+    }
+
+    /**
+     * Get the average latency of the measured endpoints, or 1 if none has been measured.
+     */
+    private double averageLatency() {
+        double sum      = 0;
+        int    measured = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.measured) {
+                sum += endpoint.latencyEwma;
+                measured++;
+            }
+        }
+        return measured == 0 ? 1 : Math.max(1, sum / measured);
+    }
+
+    private void complete(Endpoint endpoint, long start, AtomicBoolean completed, boolean success) {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        // Racing updates may lose a sample, which the average does not need to be exact about
+        if (endpoint.measured) {
+            endpoint.latencyEwma += EWMA_WEIGHT * ((now - start) - endpoint.latencyEwma);
+        } else {
+            endpoint.latencyEwma = now - start;
+            endpoint.measured = true;
+        }
+        if (success) {
+            endpoint.consecutiveErrors.set(0);
+            return;
+        }
+        if (endpoint.consecutiveErrors.incrementAndGet() >= outlierConsecutiveErrors) {
+            endpoint.consecutiveErrors.set(0);
+            endpoint.ejectedUntil = now + outlierEjectionNanos;
+            endpoint.ejected = true;
+            LOG.warn("Ejecting {} for {} ms after {} failed calls in a row",
+                endpoint.address, TimeUnit.NANOSECONDS.toMillis(outlierEjectionNanos), outlierConsecutiveErrors);
+        }
+    }
+
+    Endpoint[] getEndpoints() {
+        return endpoints;
+    }
+
+    static class Endpoint {
+        private final    InetSocketAddress address;
+        private final    AtomicInteger     inFlight          = new AtomicInteger();
+        private final    AtomicInteger     consecutiveErrors = new AtomicInteger();
+        private volatile boolean           ejected;
+        private volatile long              ejectedUntil;
+        private volatile double            latencyEwma;
+        private volatile boolean           measured;
+
+        private Endpoint(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        InetSocketAddress getAddress() {
+            return address;
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        boolean isEjected(long now) {
+            return ejected && now - ejectedUntil < 0;
+        }
+
+        private boolean isAvailable(long now, InetSocketAddress avoid) {
+            return !address.equals(avoid) && !isEjected(now);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package se.fortnox.reactivewizard.client;
+
+/**
+ * How the calls of a client are spread over its endpoints.
+ */
+public enum LoadBalancing {
+    /**
+     * Send the calls to the endpoints in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Send each call to the endpoint with the fewest calls in flight, of two endpoints chosen at random.
+     */
+    POWER_OF_TWO_CHOICES,
+
+    /**
+     * Send each call to the endpoint with the lowest moving average of its response times, weighted by its calls in
+     * flight. Endpoints that have not answered yet are tried first.
+     */
+    LEAST_LATENCY
+}
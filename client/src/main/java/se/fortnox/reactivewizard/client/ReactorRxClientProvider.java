@@ -23,7 +23,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  */
 public class ReactorRxClientProvider {
-    private final ConcurrentHashMap<InetSocketAddress, HttpClient> clients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InetSocketAddress, HttpClient> clients    = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InetSocketAddress, CallGuard>  callGuards = new ConcurrentHashMap<>();
     private final HttpClientConfig                                 config;
     private final HealthRecorder                                   healthRecorder;
 
@@ -37,6 +38,19 @@ public class ReactorRxClientProvider {
         return clients.computeIfAbsent(serverInfo, this::buildClient);
     }
 
+    /**
+     * Get the guard of the calls to a server. It is shared by all clients of the server, like the connections, so that
+     * they share its circuit breaker, concurrency limit and their metrics.
+     *
+     * @param serverInfo the server
+     * @param clientConfig the config of the client, which configures the guard if it is the first client of the server
+     * @return the guard
+     */
+    CallGuard callGuardFor(InetSocketAddress serverInfo, HttpClientConfig clientConfig) {
+        return callGuards.computeIfAbsent(serverInfo, address ->
+            new CallGuard(address.getHostString() + ":" + address.getPort(), clientConfig, healthRecorder, System::nanoTime));
+    }
+
     private HttpClient setupSsl(HttpClient client, boolean isValidateCertificates) {
         if (!isValidateCertificates) {
             return client.secure(this::configureUnsafeSsl);
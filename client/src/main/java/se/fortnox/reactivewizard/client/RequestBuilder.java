@@ -43,6 +43,24 @@ public class RequestBuilder {
         reactor.netty.http.client.HttpClient client,
         RequestBuilder requestBuilder) {
 
+        return submit(client, requestBuilder, requestBuilder.getFullUrl());
+    }
+
+    /**
+     * Submit the request to a server chosen for this attempt, rather than to the server info of the request.
+     * @param client the client connected to the server
+     * @param server the server
+     * @return the response
+     */
+    Mono<RwHttpClientResponse> submitTo(reactor.netty.http.client.HttpClient client, InetSocketAddress server) {
+        return submit(client, this, getFullUrl(server));
+    }
+
+    private static Mono<RwHttpClientResponse> submit(
+        reactor.netty.http.client.HttpClient client,
+        RequestBuilder requestBuilder,
+        String url) {
+
         return
             Mono.from(client
                 .headers(entries -> {
@@ -55,14 +73,13 @@ public class RequestBuilder {
                     }
                 })
                 .request(requestBuilder.getHttpMethod())
-                .uri(requestBuilder.getFullUrl())
+                .uri(url)
                 .send((httpClientRequest, nettyOutbound)
                     -> nettyOutbound.sendByteArray(requestBuilder.getContent() != null ? requestBuilder.getContent() : Mono.empty()))
                 .responseConnection((httpClientResponse, connection)
                     -> Mono.just(new RwHttpClientResponse(httpClientResponse, connection.inbound().receive()))));
     }
 
-
     public InetSocketAddress getServerInfo() {
         return serverInfo;
     }
@@ -72,7 +89,11 @@ public class RequestBuilder {
     }
 
     public String getFullUrl() {
-        return serverInfo.getHostString() + ":" + serverInfo.getPort() + uri;
+        return getFullUrl(serverInfo);
+    }
+
+    private String getFullUrl(InetSocketAddress server) {
+        return server.getHostString() + ":" + server.getPort() + uri;
     }
 
     @Override
@@ -0,0 +1,162 @@
+package se.fortnox.reactivewizard.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import se.fortnox.reactivewizard.jaxrs.WebException;
+import se.fortnox.reactivewizard.metrics.HealthRecorder;
+
+import java.util.concurrent.TimeoutException;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallGuardTest {
+
+    private final long[]         now            = {0};
+    private final HealthRecorder healthRecorder = new HealthRecorder();
+
+    @Test
+    void shouldOpenWhenTooManyCallsFail() {
+        CallGuard callGuard = circuitBreaker();
+
+        succeed(callGuard, 1);
+        fail(callGuard, new WebException(BAD_REQUEST));
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        fail(callGuard, new TimeoutException());
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(healthRecorder.isHealthy()).isFalse();
+        assertRejected(callGuard, CallGuard.ERROR_CIRCUIT_OPEN);
+    }
+
+    @Test
+    void shouldOpenWhenTooManyCallsAreSlow() {
+        CallGuard callGuard = circuitBreaker();
+
+        for (int i = 0; i < 4; i++) {
+            succeed(callGuard, 1000);
+        }
+
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldCloseWhenTrialCallsSucceed() {
+        CallGuard callGuard = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        }
+
+        now[0] += 10_000_000_000L;
+        succeed(callGuard, 1);
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        succeed(callGuard, 1);
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(healthRecorder.isHealthy()).isTrue();
+    }
+
+    @Test
+    void shouldOpenAgainWhenTrialCallsFail() {
+        CallGuard callGuard = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        }
+
+        now[0] += 10_000_000_000L;
+        fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+
+        assertThat(callGuard.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertRejected(callGuard, CallGuard.ERROR_CIRCUIT_OPEN);
+    }
+
+    @Test
+    void shouldOnlyLetTrialCallsThroughWhileHalfOpen() {
+        CallGuard callGuard = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        }
+
+        now[0] += 10_000_000_000L;
+        callGuard.call(Mono.never()).subscribe().dispose();
+        callGuard.call(Mono.never()).subscribe();
+        callGuard.call(Mono.never()).subscribe();
+
+        assertRejected(callGuard, CallGuard.ERROR_CIRCUIT_OPEN);
+    }
+
+    @Test
+    void shouldRejectCallsOverTheConcurrencyLimit() {
+        HttpClientConfig config = new HttpClientConfig();
+        config.setAdaptiveConcurrencyLimitEnabled(true);
+        config.setInitialConcurrencyLimit(2);
+        CallGuard callGuard = new CallGuard("test", config, healthRecorder, () -> now[0]);
+
+        callGuard.call(Mono.never()).subscribe();
+        callGuard.call(Mono.never()).subscribe();
+
+        assertRejected(callGuard, CallGuard.ERROR_CONCURRENCY_LIMITED);
+    }
+
+    @Test
+    void shouldAdaptTheConcurrencyLimitToTheOutcomeOfCalls() {
+        HttpClientConfig config = new HttpClientConfig();
+        config.setAdaptiveConcurrencyLimitEnabled(true);
+        config.setInitialConcurrencyLimit(1);
+        config.setMaxConcurrencyLimit(3);
+        CallGuard        callGuard        = new CallGuard("test", config, healthRecorder, () -> now[0]);
+        ConcurrencyLimit concurrencyLimit = callGuard.getConcurrencyLimit();
+
+        for (int i = 0; i < 10; i++) {
+            succeed(callGuard, 1);
+        }
+        // One call at a time only uses the limit until it has grown to two
+        assertThat(concurrencyLimit.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            fail(callGuard, new WebException(INTERNAL_SERVER_ERROR));
+        }
+        assertThat(concurrencyLimit.getLimit()).isEqualTo(1);
+        assertThat(concurrencyLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldDetectRejections() {
+        assertThat(CallGuard.isRejection(new WebException(INTERNAL_SERVER_ERROR, CallGuard.ERROR_CIRCUIT_OPEN))).isTrue();
+        assertThat(CallGuard.isRejection(new WebException(INTERNAL_SERVER_ERROR))).isFalse();
+        assertThat(CallGuard.isRejection(new TimeoutException())).isFalse();
+    }
+
+    private CallGuard circuitBreaker() {
+        HttpClientConfig config = new HttpClientConfig();
+        config.setCircuitBreakerEnabled(true);
+        config.setCircuitBreakerWindowSize(4);
+        config.setCircuitBreakerMinimumCalls(4);
+        config.setCircuitBreakerSlowCallMs(100);
+        config.setCircuitBreakerOpenMs(10_000);
+        config.setCircuitBreakerHalfOpenCalls(2);
+        return new CallGuard("test", config, healthRecorder, () -> now[0]);
+    }
+
+    private void succeed(CallGuard callGuard, long millis) {
+        StepVerifier.create(callGuard.call(Mono.fromCallable(() -> now[0] += millis * 1_000_000L)))
+            .expectNextCount(1)
+            .verifyComplete();
+    }
+
+    private void fail(CallGuard callGuard, Throwable error) {
+        StepVerifier.create(callGuard.call(Mono.error(error)))
+            .expectErrorMatches(error::equals)
+            .verify();
+    }
+
+    private void assertRejected(CallGuard callGuard, String error) {
+        StepVerifier.create(callGuard.call(Mono.just("never called")))
+            .expectErrorMatches(e -> e instanceof WebException webException && error.equals(webException.getError()))
+            .verify();
+    }
+}
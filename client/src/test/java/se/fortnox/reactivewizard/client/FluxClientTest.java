@@ -186,9 +186,10 @@ class FluxClientTest {
             List<String> result = fluxClientResource.arrayOfStrings().take(2).collectList().block();
             assertThat(result).hasSize(2);
 
-            // It seems to become 193 requests all the time, but the important part is that it will avoid emitting all
-            // 10000 strings, so if this fails in the future we could change it to ensure that is less than 1000 or so
-            assertThat(emitted.get()).isLessThanOrEqualTo(193);
+            // It used to become 193 requests all the time, with each string and its comma written as separate chunks. Now
+            // that they are written as one chunk, the same demand of chunks emits up to twice as many strings. The
+            // important part is that it will avoid emitting all 10000 strings.
+            assertThat(emitted.get()).isLessThanOrEqualTo(2 * 193);
         } finally {
             server.disposeNow();
         }
@@ -0,0 +1,143 @@
+package se.fortnox.reactivewizard.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+import se.fortnox.reactivewizard.jaxrs.Hedged;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class HedgingTest {
+
+    private final Hedging       hedging  = new Hedging("test", new HttpClientConfig(), System::nanoTime);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void shouldUseSecondAttemptWhenFirstIsSlow() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        StepVerifier.create(hedging.hedge(attempts(attempt -> attempt == 0
+                ? Mono.<String>never().doOnCancel(() -> cancelled.set(true))
+                : Mono.just("second")), Duration.ofMillis(10)))
+            .expectNext("second")
+            .verifyComplete();
+
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldNotSendSecondAttemptWhenFirstAnswers() {
+        StepVerifier.create(hedging.hedge(attempts(attempt -> Mono.just("first")), Duration.ofMillis(50)))
+            .expectNext("first")
+            .verifyComplete();
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void shouldFailRightAwayWhenFirstAttemptFailsBeforeSecondIsSent() {
+        StepVerifier.create(hedging.hedge(attempts(attempt -> Mono.error(new IllegalStateException())), Duration.ofSeconds(10)))
+            .expectError(IllegalStateException.class)
+            .verify(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void shouldWaitForSecondAttemptWhenFirstAttemptFails() {
+        StepVerifier.create(hedging.hedge(attempts(attempt -> attempt == 0
+                ? Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException()))
+                : Mono.delay(Duration.ofMillis(100)).thenReturn("second")), Duration.ofMillis(10)))
+            .expectNext("second")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldLimitSecondAttemptsByBudget() {
+        HttpClientConfig config = new HttpClientConfig();
+        config.setHedgingBudgetPercent(0);
+        Hedging limitedHedging = new Hedging("test", config, System::nanoTime);
+
+        int secondAttempts = 0;
+        for (int i = 0; i < 12; i++) {
+            AtomicInteger calls = new AtomicInteger();
+            String response = limitedHedging.hedge(Mono.defer(() -> calls.getAndIncrement() == 0
+                ? Mono.delay(Duration.ofMillis(30)).thenReturn("first")
+                : Mono.just("second")), Duration.ofMillis(1)).block();
+            if ("second".equals(response)) {
+                secondAttempts++;
+            }
+        }
+
+        assertThat(secondAttempts).isEqualTo(10);
+    }
+
+    @Test
+    void shouldSendSecondAttemptToAnotherEndpoint() throws URISyntaxException {
+        DisposableServer slow = startServer("slow", Duration.ofSeconds(2));
+        DisposableServer fast = startServer("fast", Duration.ZERO);
+        try {
+            HttpClientConfig config = new HttpClientConfig("localhost:" + slow.port());
+            config.setEndpoints(List.of("localhost:" + slow.port(), "localhost:" + fast.port()));
+            config.setLoadBalancing(LoadBalancing.LEAST_LATENCY);
+            HedgedResource resource = new HttpClient(config).create(HedgedResource.class);
+
+            long start = System.currentTimeMillis();
+            assertThat(resource.get().block()).isEqualTo("fast");
+            assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+        } finally {
+            slow.disposeNow();
+            fast.disposeNow();
+        }
+    }
+
+    @Test
+    void shouldOnlyHedgeGetCalls() throws URISyntaxException {
+        HttpClient client = new HttpClient(new HttpClientConfig("localhost"));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> client.create(HedgedPostResource.class))
+            .withMessageContaining("Only GET calls can be hedged");
+    }
+
+    private Mono<String> attempts(Function<Integer, Mono<String>> attempt) {
+        return Mono.defer(() -> attempt.apply(attempts.getAndIncrement()));
+    }
+
+    private static DisposableServer startServer(String name, Duration delay) {
+        return HttpServer.create().host("localhost").port(0)
+            .handle((request, response) -> Mono.delay(delay).then(response.sendString(Mono.just("\"" + name + "\"")).then()))
+            .bindNow();
+    }
+
+    @Path("/hedged")
+    interface HedgedResource {
+        @GET
+        @Hedged(delayMs = 50)
+        Mono<String> get();
+    }
+
+    @Path("/hedged")
+    interface HedgedPostResource {
+        @GET
+        @Hedged(delayMs = 50)
+        Mono<String> get();
+
+        @POST
+        @Hedged
+        Mono<String> post();
+    }
+}
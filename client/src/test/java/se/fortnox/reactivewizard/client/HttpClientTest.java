@@ -65,6 +65,7 @@ import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -93,6 +94,7 @@ import static io.netty.handler.codec.http.HttpResponseStatus.GATEWAY_TIMEOUT;
 import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static java.lang.String.format;
 import static java.util.Collections.EMPTY_SET;
 import static java.util.Optional.ofNullable;
@@ -101,6 +103,7 @@ import static org.apache.logging.log4j.Level.INFO;
 import static org.apache.logging.log4j.Level.WARN;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -174,6 +177,56 @@ class HttpClientTest {
         }
     }
 
+    @Test
+    void shouldStopRetryingWhenCircuitBreakerOpens() throws URISyntaxException {
+        AtomicLong callCount = new AtomicLong();
+        server = startServer(INTERNAL_SERVER_ERROR, "\"NOT OK\"", r -> callCount.incrementAndGet());
+
+        HttpClientConfig config = new HttpClientConfig("localhost:" + server.port());
+        config.setRetryCount(3);
+        config.setRetryDelayMs(1);
+        config.setCircuitBreakerEnabled(true);
+        config.setCircuitBreakerWindowSize(2);
+        config.setCircuitBreakerMinimumCalls(2);
+        TestResource resource = getHttpProxy(config);
+
+        assertThatThrownBy(() -> resource.getHello().toBlocking().singleOrDefault(null))
+            .isInstanceOfSatisfying(WebException.class, e -> {
+                assertThat(e.getStatus()).isEqualTo(SERVICE_UNAVAILABLE);
+                assertThat(e.getError()).isEqualTo(CallGuard.ERROR_CIRCUIT_OPEN);
+            });
+        assertThat(callCount.get()).isEqualTo(2);
+        assertThat(healthRecorder.isHealthy()).isFalse();
+    }
+
+    @Test
+    void shouldShareCircuitBreakerBetweenClientsOfSameServer() throws URISyntaxException {
+        AtomicLong callCount = new AtomicLong();
+        server = startServer(INTERNAL_SERVER_ERROR, "\"NOT OK\"", r -> callCount.incrementAndGet());
+
+        HttpClientConfig config = new HttpClientConfig("localhost:" + server.port());
+        config.setCircuitBreakerEnabled(true);
+        config.setCircuitBreakerWindowSize(2);
+        config.setCircuitBreakerMinimumCalls(2);
+        ReactorRxClientProvider clientProvider = new ReactorRxClientProvider(config, healthRecorder);
+        HttpClient              first          = new HttpClient(config, clientProvider, new ObjectMapper(), new RequestParameterSerializers(),
+            Collections.emptySet(), new RequestLogger());
+        HttpClient              second         = new HttpClient(config, clientProvider, new ObjectMapper(), new RequestParameterSerializers(),
+            Collections.emptySet(), new RequestLogger());
+        TestResource            firstResource  = first.create(TestResource.class);
+        TestResource            secondResource = second.create(TestResource.class);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(WebException.class).isThrownBy(() -> firstResource.getHello().toBlocking().singleOrDefault(null));
+        }
+
+        assertThatThrownBy(() -> secondResource.getHello().toBlocking().singleOrDefault(null))
+            .isInstanceOfSatisfying(WebException.class, e -> assertThat(e.getError()).isEqualTo(CallGuard.ERROR_CIRCUIT_OPEN));
+        assertThat(callCount.get()).isEqualTo(2);
+        assertThat(Metrics.registry().getGauges().get("OUT_circuit:localhost:" + server.port() + "_state").getValue())
+            .isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+    }
+
     protected TestResource getHttpProxy(int port) {
         return getHttpProxy(port, 1, 10000);
     }
@@ -308,6 +361,24 @@ class HttpClientTest {
         assertThat(jaxRsMetas.get(2)).isSameAs(jaxRsMetas.get(3));
     }
 
+    @Test
+    void shouldBuildPathFromOverriddenJaxRsMeta() throws URISyntaxException, NoSuchMethodException {
+        Path       otherPath  = OtherPathResource.class.getAnnotation(Path.class);
+        HttpClient httpClient = new HttpClient(new HttpClientConfig("localhost")) {
+            @Override
+            protected JaxRsMeta getJaxRsMeta(Method method) {
+                return new JaxRsMeta(method, otherPath);
+            }
+        };
+
+        Method getPathParam = TestResource.class.getMethod("getPathParam", String.class);
+
+        assertThat(httpClient.createRequest(getPathParam, new Object[]{"value"}).getUri()).isEqualTo("/other/with-path-param/value");
+
+        HttpClient plainClient = new HttpClient(new HttpClientConfig("localhost"));
+        assertThat(plainClient.getPath(getPathParam, new Object[]{"value"}, new JaxRsMeta(getPathParam, otherPath))).isEqualTo("/other/with-path-param/value");
+    }
+
     @Test
     void shouldAddRootToRequestUri() throws URISyntaxException, NoSuchMethodException {
 
@@ -593,6 +664,14 @@ class HttpClientTest {
         assertThat(path).isEqualTo("/hello/{fid}/path%3Aparam?value=query-param-with%3Acolon");
     }
 
+    @Test
+    void shouldReplaceEveryOccurrenceOfPathParam() throws Exception {
+        HttpClient client = new HttpClient(new HttpClientConfig("localhost"));
+        Method method = TestResource.class.getMethod("withRepeatedPathParam", String.class);
+        String path = client.getPath(method, new Object[]{"a$1"}, new JaxRsMeta(method, null));
+        assertThat(path).isEqualTo("/hello/a%241/{other:[a-z]{2}}/a%241");
+    }
+
     @Test
     void shouldSupportBeanParamExtendingOtherClasses() throws Exception {
         HttpClient client = new HttpClient(new HttpClientConfig("localhost"));
@@ -931,6 +1010,34 @@ class HttpClientTest {
         assertThat(result).isEqualTo("hello");
     }
 
+    @Test
+    void shouldDeserializeUtf8BodySplitWithinCharacter() {
+        byte[] body = "\"h\u00e5ll\u00e5\"".getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create().port(0).handle((request, response) -> {
+            response.status(OK);
+            return response.sendByteArray(just(Arrays.copyOfRange(body, 0, 3), Arrays.copyOfRange(body, 3, body.length)));
+        }).bindNow();
+
+        TestResource resource = getHttpProxy(server.port());
+        assertThat(resource.getHello().toBlocking().single()).isEqualTo("h\u00e5ll\u00e5");
+    }
+
+    @Test
+    void shouldDeserializeThroughOverriddenStringDeserialize() throws URISyntaxException {
+        server = startServer(OK, "\"hello\"");
+
+        HttpClientConfig config = new HttpClientConfig("localhost:" + server.port());
+        HttpClient client = new HttpClient(config) {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected Mono<Object> deserialize(Method method, String string) {
+                return Mono.just("overridden " + string);
+            }
+        };
+
+        assertThat(client.create(TestResource.class).getHello().toBlocking().single()).isEqualTo("overridden \"hello\"");
+    }
+
     @Test
     void shouldDeserializeVoidResult() {
         server = startServer(HttpResponseStatus.CREATED, "");
@@ -1777,6 +1884,9 @@ class HttpClientTest {
         @Path("{fid}/{key:.*}")
         Observable<String> withRegExpPathAndQueryParam(@PathParam("key") String key, @QueryParam("value") String value);
 
+        @Path("{id:[a-z]{2}}/{other:[a-z]{2}}/{id}")
+        Observable<String> withRepeatedPathParam(@PathParam("id") String id);
+
         @Path("beanParam")
         Observable<String> withBeanParam(@BeanParam Filters filters);
 
@@ -1881,6 +1991,10 @@ class HttpClientTest {
         }
     }
 
+    @Path("/other")
+    private interface OtherPathResource {
+    }
+
     private interface SessionInterface {
         UUID getSessionId();
     }
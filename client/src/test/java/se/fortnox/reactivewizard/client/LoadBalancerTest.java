@@ -0,0 +1,174 @@
+package se.fortnox.reactivewizard.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancerTest {
+
+    private final long[] now = {0};
+
+    @Test
+    void shouldSendCallsToEndpointsInTurn() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.ROUND_ROBIN);
+
+        assertThat(List.of(port(loadBalancer.choose()), port(loadBalancer.choose()), port(loadBalancer.choose())))
+            .containsExactly(1, 2, 1);
+    }
+
+    @Test
+    void shouldPreferEndpointWithFewerCallsInFlight() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.POWER_OF_TWO_CHOICES);
+        int[]        busy         = new int[1];
+        loadBalancer.call(endpoint -> {
+            busy[0] = port(endpoint);
+            return Mono.never();
+        }, response -> true).subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(port(loadBalancer.choose())).isNotEqualTo(busy[0]);
+        }
+    }
+
+    @Test
+    void shouldPreferEndpointWithLowestLatency() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.LEAST_LATENCY);
+        assertThat(call(loadBalancer, 100, true)).isEqualTo(1);
+        assertThat(call(loadBalancer, 10, true)).isEqualTo(2);
+
+        assertThat(port(loadBalancer.choose())).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotSendAllCallsToEndpointNotYetMeasured() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.LEAST_LATENCY);
+        assertThat(call(loadBalancer, 10, true)).isEqualTo(1);
+
+        for (int i = 0; i < 4; i++) {
+            loadBalancer.call(endpoint -> Mono.never(), response -> true).subscribe();
+        }
+
+        assertThat(loadBalancer.getEndpoints()).extracting(LoadBalancer.Endpoint::getInFlight).containsExactly(2, 2);
+    }
+
+    @Test
+    void shouldCountTimedOutCallsAsFailed() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.ROUND_ROBIN);
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.call(endpoint -> Mono.never().timeout(Duration.ofMillis(1)), response -> true)
+                .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                .block();
+        }
+
+        assertThat(List.of(port(loadBalancer.choose()), port(loadBalancer.choose()))).containsExactly(2, 2);
+    }
+
+    @Test
+    void shouldNotCountCancelledCallsAsFailed() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.ROUND_ROBIN);
+        for (int i = 0; i < 4; i++) {
+            loadBalancer.call(endpoint -> Mono.never(), response -> true).subscribe().dispose();
+        }
+
+        assertThat(loadBalancer.getEndpoints()).extracting(LoadBalancer.Endpoint::getInFlight).containsExactly(0, 0);
+        assertThat(List.of(port(loadBalancer.choose()), port(loadBalancer.choose()))).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldEjectEndpointFailingCallsInARow() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancing.ROUND_ROBIN);
+        assertThat(call(loadBalancer, 10, false)).isEqualTo(1);
+        assertThat(call(loadBalancer, 10, true)).isEqualTo(2);
+        assertThat(call(loadBalancer, 10, false)).isEqualTo(1);
+
+        assertThat(List.of(port(loadBalancer.choose()), port(loadBalancer.choose()))).containsExactly(2, 2);
+
+        now[0] += 1_000_000_000L;
+        assertThat(List.of(port(loadBalancer.choose()), port(loadBalancer.choose()))).containsExactly(2, 1);
+    }
+
+    @Test
+    void shouldSpreadCallsOverEndpoints() throws URISyntaxException {
+        DisposableServer first  = startServer("first");
+        DisposableServer second = startServer("second");
+        try {
+            HttpClientConfig config = new HttpClientConfig("localhost:" + first.port());
+            config.setEndpoints(List.of("localhost:" + first.port(), "localhost:" + second.port()));
+            BalancedResource resource = new HttpClient(config).create(BalancedResource.class);
+
+            assertThat(resource.get().block()).isEqualTo("first");
+            assertThat(resource.get().block()).isEqualTo("second");
+        } finally {
+            first.disposeNow();
+            second.disposeNow();
+        }
+    }
+
+    @Test
+    void shouldSendCallsToSingleEndpointOtherThanHost() throws URISyntaxException {
+        DisposableServer endpoint = startServer("endpoint");
+        try {
+            HttpClientConfig config = new HttpClientConfig("localhost:1");
+            config.setEndpoints(List.of("localhost:" + endpoint.port()));
+            BalancedResource resource = new HttpClient(config).create(BalancedResource.class);
+
+            assertThat(resource.get().block()).isEqualTo("endpoint");
+        } finally {
+            endpoint.disposeNow();
+        }
+    }
+
+    /**
+     * Make a call taking some time, and return the port of the endpoint it was made to.
+     */
+    private int call(LoadBalancer loadBalancer, long latency, boolean success) {
+        int[] port = new int[1];
+        loadBalancer.call(endpoint -> {
+            port[0] = port(endpoint);
+            now[0] += latency;
+            return success ? Mono.just("ok") : Mono.<String>error(new IllegalStateException());
+        }, response -> true).onErrorResume(IllegalStateException.class, e -> Mono.empty()).block();
+        return port[0];
+    }
+
+    private LoadBalancer loadBalancer(LoadBalancing loadBalancing) {
+        HttpClientConfig config = new HttpClientConfig();
+        config.setHost("localhost");
+        config.setEndpoints(List.of("localhost:1", "localhost:2"));
+        config.setLoadBalancing(loadBalancing);
+        config.setOutlierConsecutiveErrors(2);
+        config.setOutlierEjectionMs(1000);
+        return new LoadBalancer(config, () -> now[0]);
+    }
+
+    private static int port(LoadBalancer.Endpoint endpoint) {
+        return port(endpoint.getAddress());
+    }
+
+    private static int port(InetSocketAddress address) {
+        return address.getPort();
+    }
+
+    private static DisposableServer startServer(String name) {
+        return HttpServer.create().host("localhost").port(0)
+            .handle((request, response) -> response.sendString(Mono.just("\"" + name + "\"")))
+            .bindNow();
+    }
+
+    @Path("/balanced")
+    interface BalancedResource {
+        @GET
+        Mono<String> get();
+    }
+}
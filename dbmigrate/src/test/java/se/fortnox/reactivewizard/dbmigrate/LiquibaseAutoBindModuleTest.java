@@ -11,8 +11,12 @@ import org.junit.jupiter.api.Test;
 import se.fortnox.reactivewizard.binding.AutoBindModules;
 import se.fortnox.reactivewizard.config.ConfigFactory;
 import se.fortnox.reactivewizard.config.TestInjector;
+import se.fortnox.reactivewizard.jaxrs.AccessLogConfig;
+import se.fortnox.reactivewizard.jaxrs.BlockingConfig;
+import se.fortnox.reactivewizard.jaxrs.response.ResponseConfig;
 import se.fortnox.reactivewizard.json.JsonConfig;
 import se.fortnox.reactivewizard.logging.LoggingShutdownHandler;
+import se.fortnox.reactivewizard.server.ConcurrencyLimitConfig;
 import se.fortnox.reactivewizard.server.ServerConfig;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -147,6 +151,11 @@ class LiquibaseAutoBindModuleTest {
                 when(configFactory.get(JsonConfig.class)).thenReturn(jsonConfig);
                 bind(JsonConfig.class).toInstance(jsonConfig);
 
+                when(configFactory.get(ResponseConfig.class)).thenReturn(new ResponseConfig());
+                when(configFactory.get(ConcurrencyLimitConfig.class)).thenReturn(new ConcurrencyLimitConfig());
+                when(configFactory.get(AccessLogConfig.class)).thenReturn(new AccessLogConfig());
+                when(configFactory.get(BlockingConfig.class)).thenReturn(new BlockingConfig());
+
                 LiquibaseConfig liquibaseConfig = new LiquibaseConfig();
                 liquibaseConfig.setUrl("jdbc:h2:mem:test");
 
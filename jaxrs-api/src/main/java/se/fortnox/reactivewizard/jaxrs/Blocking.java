@@ -0,0 +1,22 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Call a resource on a virtual thread instead of on the event loop handling the request, so that resources calling
+ * blocking libraries do not stall the other connections of the event loop. The output of the resource is subscribed
+ * to on the same virtual thread, so it may block as well.
+ * <p>
+ * The number of concurrent blocking calls is limited by the blocking config, and calls over the limit wait in a queue.
+ * <p>
+ * e.g.
+ * <p>
+ * {@literal @}Blocking
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Blocking {
+}
@@ -0,0 +1,39 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run the calls of a resource in a named bulkhead, which limits how many calls of its resources run concurrently, so
+ * that slow resources can not use up the threads and connections that other resources need. Calls over the limit wait
+ * in a bounded queue, and calls that do not fit in the queue are rejected with 503 Service Unavailable.
+ * <p>
+ * Resources annotated with the same name share the bulkhead, and must use the same limits.
+ * <p>
+ * e.g.
+ * <p>
+ * {@literal @}Bulkhead(value = "reports", maxConcurrent = 4, maxQueued = 20)
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    /**
+     * The name of the bulkhead.
+     * @return the name
+     */
+    String value();
+
+    /**
+     * The max number of calls running concurrently in the bulkhead.
+     * @return the max number of concurrent calls
+     */
+    int maxConcurrent();
+
+    /**
+     * The max number of calls waiting for a call to complete.
+     * @return the max number of waiting calls
+     */
+    int maxQueued() default 0;
+}
@@ -0,0 +1,26 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedge the client calls of a GET resource. A call that has not answered within a delay is sent a second time, to
+ * another endpoint if the client has several, and the first successful response is used while the other attempt is
+ * cancelled. The second attempts of a client are limited by the hedging budget of its config.
+ * <p>
+ * e.g.
+ * <p>
+ * {@literal @}Hedged(delayMs = 50)
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+    /**
+     * The time to wait for an answer before the call is sent a second time. With a delay of 0 the delay is the 95th
+     * percentile of the response times of the call.
+     * @return the delay in milliseconds
+     */
+    long delayMs() default 0;
+}
@@ -0,0 +1,42 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Set the priority of requests to a resource, which decides which requests are rejected first when the server is
+ * overloaded and limits the number of concurrent requests. Resources without the annotation have normal priority.
+ * <p>
+ * e.g.
+ * <p>
+ * {@literal @}RequestPriority(RequestPriority.Level.LOW)
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestPriority {
+    /**
+     * The priority of the requests.
+     * @return the priority
+     */
+    Level value();
+
+    /**
+     * The priorities of requests.
+     */
+    enum Level {
+        /**
+         * Never rejected, such as health checks. The requests still count towards the concurrency limit.
+         */
+        CRITICAL,
+        /**
+         * Rejected when the concurrency limit is reached.
+         */
+        NORMAL,
+        /**
+         * Rejected when a share of the concurrency limit is reached, leaving the rest to requests of higher priority.
+         */
+        LOW
+    }
+}
@@ -0,0 +1,53 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cache the serialized responses of a GET resource in memory, so that repeated identical requests are answered without
+ * calling the resource. Responses are sent with a strong ETag, and requests with a matching If-None-Match header are
+ * answered with 304 Not Modified.
+ * <p>
+ * Only successful responses are cached. The cache key is the path of the request, the query params and the headers
+ * selected below. Headers set by result transformers are cached along with the response.
+ * <p>
+ * e.g.
+ * <p>
+ * {@literal @}ResponseCache(ttlSeconds = 300, queryParams = {"country"}, headers = {"Accept-Language"})
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResponseCache {
+    /**
+     * The time a response is cached. With a time of 0 nothing is cached, which can be combined with {@link #coalesce()}.
+     * @return the time to live in seconds
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * Let concurrent requests with the same cache key share a single call of the resource, instead of calling the
+     * resource once each. The response is serialized once, and then written to each of the requests.
+     * @return whether to coalesce concurrent requests
+     */
+    boolean coalesce() default false;
+
+    /**
+     * The max number of responses cached for the resource.
+     * @return the max number of entries
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * The query params that are part of the cache key. If none are given, the whole query string is part of the key.
+     * @return the names of the query params
+     */
+    String[] queryParams() default {};
+
+    /**
+     * The request headers that are part of the cache key.
+     * @return the names of the headers
+     */
+    String[] headers() default {};
+}
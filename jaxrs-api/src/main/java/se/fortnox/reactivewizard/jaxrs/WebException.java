@@ -8,10 +8,19 @@ import io.netty.handler.codec.http.HttpResponseStatus;
 import org.slf4j.event.Level;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * An error that is sent to the client as a json body with the status of the exception. Client errors do not capture
+ * a stack trace unless the system property {@value #CLIENT_ERROR_STACK_TRACES} is true, since they are expected and
+ * may be created at a high rate.
+ */
 @SuppressWarnings("serial")
 @JsonIgnoreProperties({"cause", "stackTrace", "localizedMessage", "suppressed", "logLevel", "body"})
 public class WebException extends RuntimeException {
+    public static final String CLIENT_ERROR_STACK_TRACES = "webexception.clientErrorStackTraces";
+
+    private static final boolean CLIENT_ERROR_STACK_TRACES_ENABLED = Boolean.getBoolean(CLIENT_ERROR_STACK_TRACES);
 
     private   String             id;
     private   String             error;
@@ -44,7 +53,7 @@ public class WebException extends RuntimeException {
     }
 
     public WebException(HttpResponseStatus httpStatus, String errorCode, Throwable throwable) {
-        this(httpStatus, throwable, true);
+        this(httpStatus, throwable, captureStackTrace(httpStatus));
         this.error = errorCode;
     }
 
@@ -53,10 +62,11 @@ public class WebException extends RuntimeException {
     }
 
     public WebException(HttpResponseStatus httpStatus, Throwable throwable) {
-        this(httpStatus, throwable, true);
+        this(httpStatus, throwable, captureStackTrace(httpStatus));
     }
 
     public WebException(HttpResponseStatus httpStatus, FieldError... fieldErrors) {
+        super(null, null, true, captureStackTrace(httpStatus));
         this.status = httpStatus;
         if (fieldErrors != null && fieldErrors.length != 0) {
             this.fields = fieldErrors;
@@ -77,6 +87,7 @@ public class WebException extends RuntimeException {
     }
 
     public WebException(HttpResponseStatus httpStatus, String errorCode, String userMessage) {
+        super(null, null, true, captureStackTrace(httpStatus));
         this.message = userMessage;
         this.status = httpStatus;
         this.error = errorCode;
@@ -162,8 +173,19 @@ public class WebException extends RuntimeException {
         return Level.WARN;
     }
 
-    private String createUUID() {
-        return UUID.randomUUID().toString();
+    private static boolean captureStackTrace(HttpResponseStatus httpStatus) {
+        return httpStatus.code() >= 500 || CLIENT_ERROR_STACK_TRACES_ENABLED;
+    }
+
+    /**
+     * Create a random version 4 UUID from {@link ThreadLocalRandom}, which unlike {@link UUID#randomUUID()} never blocks
+     * waiting for entropy. The id only needs to be unique, not unpredictable.
+     */
+    private static String createUUID() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits  = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
     }
 
     /**
@@ -4,6 +4,7 @@ import io.netty.handler.codec.http.HttpResponseStatus;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.UUID;
 import java.util.regex.Pattern;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_GATEWAY;
@@ -196,6 +197,26 @@ class WebExceptionTest {
         assertThat(WebException.hasError(null, "not used")).isFalse();
     }
 
+    @Test
+    void shouldCreateRandomVersion4Ids() {
+        UUID first  = UUID.fromString(new WebException(BAD_REQUEST).getId());
+        UUID second = UUID.fromString(new WebException(BAD_REQUEST).getId());
+
+        assertThat(first.version()).isEqualTo(4);
+        assertThat(first.variant()).isEqualTo(2);
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void shouldOnlyCaptureStackTracesOfServerErrors() {
+        assertThat(new WebException(BAD_REQUEST).getStackTrace()).isEmpty();
+        assertThat(new WebException(NOT_FOUND, "notfound", "message").getStackTrace()).isEmpty();
+        assertThat(new WebException(new FieldError[0]).getStackTrace()).isEmpty();
+        assertThat(new WebException(INTERNAL_SERVER_ERROR).getStackTrace()).isNotEmpty();
+        assertThat(new WebException(BAD_GATEWAY, "any", "strings").getStackTrace()).isNotEmpty();
+        assertThat(new WebException(BAD_REQUEST, null, true).getStackTrace()).isNotEmpty();
+    }
+
     private void assertUuid(String id) {
         Pattern pattern = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
         assertThat(pattern.matcher(id).matches()).isTrue();
@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 import reactor.netty.channel.AbortedException;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
@@ -85,14 +86,16 @@ public class ExceptionHandler {
             webException = new WebException(INTERNAL_SERVER_ERROR, throwable);
         }
 
-        logException(request, webException);
+        // The json is serialized once, for both the log and the response
+        String json = json(webException);
+        logException(request, webException, json);
 
         response = response.status(webException.getStatus());
         if (HttpMethod.HEAD.equals(request.method())) {
             response.addHeader("Content-Length", "0");
         } else {
             response = response.addHeader("Content-Type", APPLICATION_JSON);
-            return response.sendString(justOrEmpty(json(webException)));
+            return response.sendString(justOrEmpty(json));
         }
         return empty();
     }
@@ -115,13 +118,13 @@ public class ExceptionHandler {
         }
     }
 
-    private String getLogMessage(HttpServerRequest request, WebException webException) {
+    private String getLogMessage(HttpServerRequest request, WebException webException, String json) {
         final StringBuilder msg = new StringBuilder()
             .append(webException.getStatus().toString())
             .append("\n\tCause: ").append(webException.getCause() != null ?
                 webException.getCause().getMessage() :
                 "-")
-            .append("\n\tResponse: ").append(json(webException))
+            .append("\n\tResponse: ").append(json)
             .append("\n\tRequest: ")
             .append(request.method())
             .append(" ").append(request.uri())
@@ -149,8 +152,11 @@ public class ExceptionHandler {
         return requestLogger.getHeaderValueOrRedactServer(header);
     }
 
-    private void logException(HttpServerRequest request, WebException webException) {
-        String logMessage = getLogMessage(request, webException);
+    private void logException(HttpServerRequest request, WebException webException, String json) {
+        if (!LOG.isEnabledForLevel(effectiveLevel(webException.getLogLevel()))) {
+            return;
+        }
+        String logMessage = getLogMessage(request, webException, json);
         switch (webException.getLogLevel()) {
             case WARN -> LOG.warn(logMessage, webException);
             case INFO -> LOG.info(logMessage, webException);
@@ -158,4 +164,11 @@ public class ExceptionHandler {
             default -> LOG.error(logMessage, webException);
         }
     }
+
+    /**
+     * The level that an exception is logged at, since trace is logged as debug.
+     */
+    private static Level effectiveLevel(Level level) {
+        return level == Level.TRACE ? Level.DEBUG : level;
+    }
 }
@@ -0,0 +1,36 @@
+package se.fortnox.reactivewizard;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import se.fortnox.reactivewizard.jaxrs.RequestPriority;
+
+/**
+ * The result of a @{@link RequestHandler} that handles a request with a priority other than normal.
+ */
+public class PrioritizedPublisher implements Publisher<Void> {
+    private final Publisher<Void>       publisher;
+    private final RequestPriority.Level priority;
+
+    public PrioritizedPublisher(Publisher<Void> publisher, RequestPriority.Level priority) {
+        this.publisher = publisher;
+        this.priority = priority;
+    }
+
+    /**
+     * Get the priority of a result of a request handler.
+     *
+     * @param result the result
+     * @return the priority of the result
+     */
+    public static RequestPriority.Level priorityOf(Publisher<Void> result) {
+        if (result instanceof PrioritizedPublisher prioritizedPublisher) {
+            return prioritizedPublisher.priority;
+        }
+        return RequestPriority.Level.NORMAL;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Void> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+}
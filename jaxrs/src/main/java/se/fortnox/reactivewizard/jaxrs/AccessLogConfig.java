@@ -0,0 +1,70 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import se.fortnox.reactivewizard.config.Config;
+
+/**
+ * Configures how the server writes its access log.
+ */
+@Config("accessLog")
+public class AccessLogConfig {
+    private boolean asynchronous = false;
+    private int     bufferSize   = 8192;
+    private double  sampleRate   = 1.0;
+    private int     maxPerSecond = 0;
+
+    /**
+     * Record access log entries in a ring buffer, and write them to the log from a background thread, instead of
+     * formatting and writing them on the thread handling the request. Entries have a fixed layout, and do not include
+     * headers even when debug logging is enabled.
+     *
+     * @return whether the access log is written asynchronously
+     */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * The number of entries that the ring buffer holds, rounded up to a power of two. Entries are dropped while the
+     * buffer is full.
+     *
+     * @return the size of the buffer
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * The share of successful requests that are logged asynchronously. Requests failing with a server error are always
+     * logged.
+     *
+     * @return the sample rate, between 0 and 1
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * The max number of entries written per second when logging asynchronously. With 0 there is no limit.
+     *
+     * @return the max number of entries per second
+     */
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+}
@@ -0,0 +1,247 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * An access log that records entries of a fixed layout in a preallocated ring buffer, and writes them to their loggers
+ * from a background thread. Recording an entry only copies a few fields into the buffer, so that the formatting and
+ * writing of the log does not load the threads handling requests. Entries are dropped, rather than waited for, while
+ * the buffer is full.
+ *
+ * <p>The buffer has many producers and a single consumer. A producer claims a slot by its sequence number, and
+ * publishes the entry by writing the sequence number of the slot last, which the consumer waits for.</p>
+ *
+ * <p>All started access logs are written by a single shared thread, which blocks while there is nothing to write and is
+ * woken up by the next recorded entry. An access log that is no longer referenced is dropped by the thread.</p>
+ */
+class AsyncAccessLog {
+    private static final Logger LOG              = LoggerFactory.getLogger(AsyncAccessLog.class);
+    private static final long   NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Writer WRITER           = new Writer();
+
+    private final Entry[]       entries;
+    private final int           mask;
+    private final double        sampleRate;
+    private final int           maxPerSecond;
+    private final LongSupplier  nanoTime;
+    private final AtomicLong    claimed  = new AtomicLong();
+    private final AtomicLong    consumed = new AtomicLong();
+    private final AtomicLong    dropped  = new AtomicLong();
+    private final StringBuilder line     = new StringBuilder(256);
+    private       long          currentSecond;
+    private       int           writtenThisSecond;
+    private       long          overRateLimit;
+
+    AsyncAccessLog(AccessLogConfig config, LongSupplier nanoTime) {
+        int size = Integer.highestOneBit(Math.max(config.getBufferSize() - 1, 1)) << 1;
+        this.entries = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new Entry();
+        }
+        this.mask = size - 1;
+        this.sampleRate = config.getSampleRate();
+        this.maxPerSecond = config.getMaxPerSecond();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Create an access log, and have it written by the shared access log thread.
+     *
+     * @param config the config
+     * @return the access log
+     */
+    static AsyncAccessLog start(AccessLogConfig config) {
+        AsyncAccessLog accessLog = new AsyncAccessLog(config, System::nanoTime);
+        WRITER.add(accessLog);
+        return accessLog;
+    }
+
+    /**
+     * Record an entry, unless it is not sampled or the buffer is full.
+     *
+     * @param log the logger to write the entry to
+     * @param status the status code of the response
+     * @param method the method of the request
+     * @param uri the uri of the request
+     * @param duration the duration of the request in milliseconds
+     * @param requestBytes the content length of the request, or -1 if unknown
+     * @param responseBytes the content length of the response, or -1 if unknown
+     */
+    void record(Logger log, int status, HttpMethod method, String uri, long duration, long requestBytes, long responseBytes) {
+        if (status < 500 && sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= entries.length) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Entry entry = entries[(int)(sequence & mask)];
+        entry.log = log;
+        entry.status = status;
+        entry.method = method;
+        entry.uri = uri;
+        entry.duration = duration;
+        entry.requestBytes = requestBytes;
+        entry.responseBytes = responseBytes;
+        entry.sequence = sequence;
+        WRITER.wakeUp();
+    }
+
+    /**
+     * Write the published entries to their loggers.
+     *
+     * @return whether any entries were written
+     */
+    boolean drain() {
+        long  sequence = consumed.get();
+        Entry entry    = entries[(int)(sequence & mask)];
+        if (entry.sequence != sequence) {
+            reportSkipped(nanoTime.getAsLong() / NANOS_PER_SECOND);
+            return false;
+        }
+        do {
+            write(entry);
+            entry.log = null;
+            entry.uri = null;
+            consumed.lazySet(++sequence);
+            entry = entries[(int)(sequence & mask)];
+        } while (entry.sequence == sequence);
+        return true;
+    }
+
+    private void write(Entry entry) {
+        long second = nanoTime.getAsLong() / NANOS_PER_SECOND;
+        reportSkipped(second);
+        if (maxPerSecond > 0 && writtenThisSecond >= maxPerSecond) {
+            overRateLimit++;
+            return;
+        }
+        writtenThisSecond++;
+        if (!entry.log.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        line.append(entry.status)
+            .append(": ")
+            .append(entry.method)
+            .append(' ')
+            .append(entry.uri)
+            .append(' ')
+            .append(entry.duration)
+            .append(' ');
+        appendBytes(entry.requestBytes);
+        line.append(' ');
+        appendBytes(entry.responseBytes);
+        entry.log.info(line.toString());
+    }
+
+    private void appendBytes(long bytes) {
+        if (bytes < 0) {
+            line.append('-');
+        } else {
+            line.append(bytes);
+        }
+    }
+
+    /**
+     * Report the entries skipped in the last second, once a new second has started.
+     */
+    private void reportSkipped(long second) {
+        if (second == currentSecond) {
+            return;
+        }
+        long droppedLastSecond = dropped.getAndSet(0);
+        if (droppedLastSecond > 0 || overRateLimit > 0) {
+            LOG.warn("Skipped {} access log entries over the rate limit and {} while the buffer was full", overRateLimit, droppedLastSecond);
+        }
+        currentSecond = second;
+        writtenThisSecond = 0;
+        overRateLimit = 0;
+    }
+
+    /**
+     * The thread writing the access logs. It parks while all buffers are empty, and the producers only unpark it when it
+     * is parked. It is still woken up once a second, so that skipped entries are reported.
+     */
+    private static class Writer implements Runnable {
+        private static final long IDLE_PARK_NANOS = NANOS_PER_SECOND;
+
+        private final List<WeakReference<AsyncAccessLog>> accessLogs = new CopyOnWriteArrayList<>();
+        private          Thread                             thread;
+        private volatile boolean                            parked;
+
+        synchronized void add(AsyncAccessLog accessLog) {
+            accessLogs.add(new WeakReference<>(accessLog));
+            if (thread == null) {
+                thread = new Thread(this, "access-log");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        void wakeUp() {
+            if (parked) {
+                parked = false;
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (!drainAll()) {
+                        parked = true;
+                        // Entries recorded before the flag was set do not wake the thread up, so they are drained here
+                        if (!drainAll()) {
+                            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                        }
+                        parked = false;
+                    }
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to write access log", e);
+                }
+            }
+        }
+
+        private boolean drainAll() {
+            boolean drained = false;
+            for (WeakReference<AsyncAccessLog> reference : accessLogs) {
+                AsyncAccessLog accessLog = reference.get();
+                if (accessLog == null) {
+                    accessLogs.remove(reference);
+                } else if (accessLog.drain()) {
+                    drained = true;
+                }
+            }
+            return drained;
+        }
+    }
+
+    private static class Entry {
+        private          Logger     log;
+        private          int        status;
+        private          HttpMethod method;
+        private          String     uri;
+        private          long       duration;
+        private          long       requestBytes;
+        private          long       responseBytes;
+        private volatile long       sequence = -1;
+    }
+}
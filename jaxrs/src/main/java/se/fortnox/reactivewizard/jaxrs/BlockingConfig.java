@@ -0,0 +1,40 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import se.fortnox.reactivewizard.config.Config;
+
+/**
+ * Configures how resources annotated with {@link Blocking} are called.
+ */
+@Config("blocking")
+public class BlockingConfig {
+    private int maxConcurrent = 256;
+    private int maxQueued     = 10000;
+
+    /**
+     * The max number of blocking calls running concurrently, each on its own virtual thread. The limit protects the
+     * blocked resources, such as connection pools, rather than the threads, which are cheap.
+     *
+     * @return the max number of concurrent calls
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * The max number of blocking calls waiting for a call to complete. Calls that do not fit in the queue are rejected
+     * with 503 Service Unavailable.
+     *
+     * @return the max number of waiting calls
+     */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+}
@@ -0,0 +1,67 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Calls the resources annotated with {@link Blocking} on virtual threads. The resource is called, and its output
+ * subscribed to, on a new virtual thread, and the output is passed back to the reactive pipeline of the request from
+ * there. The number of concurrent calls is limited, and the calls are reported in the metrics IN_blocking_active,
+ * IN_blocking_queued and IN_blocking_rejected.
+ */
+@Singleton
+public class BlockingExecutor {
+    private static final String THREAD_PREFIX = "rw-blocking-";
+
+    private final ResourceBulkhead bulkhead;
+    private final Scheduler        scheduler;
+
+    public BlockingExecutor() {
+        this(new BlockingConfig());
+    }
+
+    @Inject
+    public BlockingExecutor(BlockingConfig config) {
+        this.bulkhead = new ResourceBulkhead("blocking", "IN_blocking", config.getMaxConcurrent(), config.getMaxQueued());
+        this.scheduler = Schedulers.fromExecutorService(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_PREFIX, 0).factory()), "rw-blocking");
+    }
+
+    /**
+     * Get the executor used by resources that are not created by an injected {@link JaxRsResourceFactory}.
+     *
+     * @return the default executor
+     */
+    static BlockingExecutor defaultExecutor() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Call a resource on a virtual thread once there is room for it, and keep its place until its output terminates.
+     *
+     * @param call calls the resource
+     * @param <T> the type of the output
+     * @return the output, or an error with status 503 if too many calls are waiting
+     */
+    <T> Flux<T> call(Supplier<Flux<T>> call) {
+        return bulkhead.call(() -> Flux.defer(call).subscribeOn(scheduler));
+    }
+
+    int getActive() {
+        return bulkhead.getActive();
+    }
+
+    int getQueued() {
+        return bulkhead.getQueued();
+    }
+
+    private static class DefaultHolder {
+        private static final BlockingExecutor INSTANCE = new BlockingExecutor();
+    }
+}
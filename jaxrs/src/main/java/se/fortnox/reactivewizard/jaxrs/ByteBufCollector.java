@@ -1,6 +1,8 @@
 package se.fortnox.reactivewizard.jaxrs;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -11,17 +13,34 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.function.Supplier;
 
 public class ByteBufCollector {
 
-    private final int maxReqSize;
+    private final int     maxReqSize;
+    private final boolean pooledBody;
 
     public ByteBufCollector() {
-        this.maxReqSize = 10 * 1024 * 1024;
+        this(10 * 1024 * 1024);
     }
 
     public ByteBufCollector(int maxReqSize) {
+        this(maxReqSize, false);
+    }
+
+    /**
+     * Create a collector.
+     *
+     * @param maxReqSize the max number of bytes to collect
+     * @param pooledBody whether request bodies should be kept in the received buffers instead of being copied to a byte[]
+     */
+    public ByteBufCollector(int maxReqSize, boolean pooledBody) {
         this.maxReqSize = maxReqSize;
+        this.pooledBody = pooledBody;
+    }
+
+    public boolean isPooledBody() {
+        return pooledBody;
     }
 
     /**
@@ -70,4 +89,30 @@ public class ByteBufCollector {
         return input.collect(ByteArrayOutputStream::new, this::collectChunks)
             .map(ByteArrayOutputStream::toByteArray);
     }
+
+    /**
+     * Collect the content into a composite buffer, retaining the received chunks instead of copying them. The caller
+     * owns the returned buffer and must release it. If the content fails or is cancelled, the retained chunks are
+     * released.
+     *
+     * @param content the content
+     * @return a buffer holding all the content
+     */
+    public Mono<ByteBuf> collectByteBuf(Flux<ByteBuf> content) {
+        Supplier<CompositeByteBuf> compositeBuffer = () -> ByteBufAllocator.DEFAULT.compositeBuffer(Integer.MAX_VALUE);
+        return content
+            .collect(compositeBuffer, this::collectChunk)
+            .doOnDiscard(CompositeByteBuf.class, CompositeByteBuf::release)
+            .map(ByteBuf.class::cast);
+    }
+
+    private void collectChunk(CompositeByteBuf buf, ByteBuf chunk) {
+        int length = chunk.readableBytes();
+        if (buf.readableBytes() + length > maxReqSize) {
+            throw new WebException(HttpResponseStatus.BAD_REQUEST, "too.large.input");
+        }
+        if (length > 0) {
+            buf.addComponent(true, chunk.retain());
+        }
+    }
 }
@@ -1,17 +1,17 @@
 package se.fortnox.reactivewizard.jaxrs;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.channel.AbortedException;
 import reactor.netty.http.server.HttpServerRequest;
 
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -20,6 +20,7 @@ import static io.netty.handler.codec.http.HttpMethod.DELETE;
 import static io.netty.handler.codec.http.HttpMethod.PATCH;
 import static io.netty.handler.codec.http.HttpMethod.POST;
 import static io.netty.handler.codec.http.HttpMethod.PUT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Represents an incoming request. Helps with extracting different types of data from the request.
@@ -27,18 +28,32 @@ import static io.netty.handler.codec.http.HttpMethod.PUT;
 public class JaxRsRequest {
     private static final Logger LOG = LoggerFactory.getLogger(JaxRsRequest.class);
 
+    private static final String[] NO_PATH_PARAM_NAMES  = new String[0];
+    private static final int[]    NO_PATH_PARAM_SLICES = new int[0];
+
     private final HttpServerRequest   req;
-    private final byte[]              body;
+    private       byte[]              body;
+    private final ByteBuf             bodyBuf;
     private final String              path;
     private final String              uri;
-    private       Matcher             matcher;
     private final ByteBufCollector    collector;
-    private Map<String, List<String>> queryParameters;
+    private UrlEncodedParams          queryParams;
+    private UrlEncodedParams          formParams;
+    private String[]                  pathParamNames  = NO_PATH_PARAM_NAMES;
+    private int[]                     pathParamSlices = NO_PATH_PARAM_SLICES;
 
     protected JaxRsRequest(HttpServerRequest req, Matcher matcher, byte[] body, ByteBufCollector collector) {
+        this(req, matcher, body, null, collector);
+    }
+
+    protected JaxRsRequest(HttpServerRequest req, ByteBuf body, ByteBufCollector collector) {
+        this(req, null, null, body, collector);
+    }
+
+    private JaxRsRequest(HttpServerRequest req, Matcher matcher, byte[] body, ByteBuf bodyBuf, ByteBufCollector collector) {
         this.req       = req;
-        this.matcher   = matcher;
         this.body      = body;
+        this.bodyBuf   = bodyBuf;
         this.collector = collector; // 10 MB as default
         this.uri       = req.uri();
         try {
@@ -46,6 +61,10 @@ public class JaxRsRequest {
         } catch (IllegalArgumentException e) {
             throw new WebException(HttpResponseStatus.BAD_REQUEST);
         }
+        if (matcher != null) {
+            String[] names = JaxRsResource.pathParamNames(matcher.pattern());
+            setPathParams(matcher, names, JaxRsResource.pathParamGroups(matcher.pattern(), names));
+        }
     }
 
     public JaxRsRequest(HttpServerRequest request) {
@@ -60,14 +79,49 @@ public class JaxRsRequest {
         return new JaxRsRequest(req, matcher, body, collector);
     }
 
+    protected JaxRsRequest create(HttpServerRequest req, ByteBuf body, ByteBufCollector collector) {
+        return new JaxRsRequest(req, body, collector);
+    }
+
     public boolean hasMethod(HttpMethod httpMethod) {
         return req.method().equals(httpMethod);
     }
 
+    public HttpMethod getHttpMethod() {
+        return req.method();
+    }
+
+    /**
+     * Return the body. If the body is kept in a pooled buffer it is copied to a byte[] on first call.
+     *
+     * @return the body, or null if the body is not loaded
+     */
     public byte[] getBody() {
+        if (body == null && bodyBuf != null) {
+            body = ByteBufUtil.getBytes(bodyBuf);
+        }
         return body;
     }
 
+    /**
+     * Return the body as a pooled buffer, if the body was loaded by a collector with pooled bodies enabled. The buffer is
+     * owned by the request, so readers should read from a duplicate of it.
+     *
+     * @return the body buffer, or null if the body is not kept in a pooled buffer
+     */
+    public ByteBuf getBodyBuf() {
+        return bodyBuf;
+    }
+
+    /**
+     * Release the pooled buffer of the body, if any. The body cannot be read after this.
+     */
+    public void releaseBody() {
+        if (bodyBuf != null && bodyBuf.refCnt() > 0) {
+            bodyBuf.release();
+        }
+    }
+
     /**
      * Load the body.
      *
@@ -75,21 +129,50 @@ public class JaxRsRequest {
      */
     public Mono<JaxRsRequest> loadBody() {
         HttpMethod httpMethod = req.method();
-        if (POST.equals(httpMethod) || PUT.equals(httpMethod) || PATCH.equals(httpMethod) || DELETE.equals(httpMethod)) {
-            return collector.collectBytes(req.receive()
-                    .doOnError(e -> {
-                        if (e instanceof AbortedException) {
-                            LOG.debug("Error reading data for request " + httpMethod + " " + req.uri(), e);
-                        } else {
-                            LOG.error("Error reading data for request " + httpMethod + " " + req.uri(), e);
-                        }
-                    }))
+        if (hasBody(httpMethod)) {
+            Flux<ByteBuf> content = receiveBody();
+            if (collector.isPooledBody()) {
+                return collector.collectByteBuf(content)
+                    .map(reqBody -> withPathParams(create(req, reqBody, collector)));
+            }
+            return collector.collectBytes(content)
                 .defaultIfEmpty(new byte[0])
-                .map(reqBody -> create(req, matcher, reqBody, collector));
+                .map(reqBody -> withPathParams(create(req, null, reqBody, collector)));
         }
         return Mono.just(this);
     }
 
+    /**
+     * Receive the body as it arrives, without collecting it. The chunks are released after they have been emitted, so
+     * they must be consumed synchronously. The max request size of the collector does not apply.
+     *
+     * @return the chunks of the body, or an empty Flux if the request method has no body
+     */
+    public Flux<ByteBuf> receiveBody() {
+        HttpMethod httpMethod = req.method();
+        if (!hasBody(httpMethod)) {
+            return Flux.empty();
+        }
+        return req.receive()
+            .doOnError(e -> {
+                if (e instanceof AbortedException) {
+                    LOG.debug("Error reading data for request " + httpMethod + " " + req.uri(), e);
+                } else {
+                    LOG.error("Error reading data for request " + httpMethod + " " + req.uri(), e);
+                }
+            });
+    }
+
+    private static boolean hasBody(HttpMethod httpMethod) {
+        return POST.equals(httpMethod) || PUT.equals(httpMethod) || PATCH.equals(httpMethod) || DELETE.equals(httpMethod);
+    }
+
+    private JaxRsRequest withPathParams(JaxRsRequest request) {
+        request.setPathParams(pathParamNames, pathParamSlices);
+        request.queryParams = queryParams;
+        return request;
+    }
+
     /**
      * Return the query param.
      * @param key the param key
@@ -106,21 +189,16 @@ public class JaxRsRequest {
      * @return the param or default value
      */
     public String getQueryParam(String key, String defaultValue) {
-        if (queryParameters == null) {
-            QueryStringDecoder queryStringDecoder = new QueryStringDecoder(req.uri());
-            try {
-                queryParameters = queryStringDecoder.parameters();
-            } catch (IllegalArgumentException e) {
-                LOG.info("Failed to decode HTTP query params for request {} {}", req.method().name(), req.uri(), e);
-                throw new WebException(HttpResponseStatus.BAD_REQUEST);
+        try {
+            if (queryParams == null) {
+                queryParams = UrlEncodedParams.fromUri(req.uri());
             }
+            String value = queryParams.get(key);
+            return value == null ? defaultValue : value;
+        } catch (IllegalArgumentException e) {
+            LOG.info("Failed to decode HTTP query params for request {} {}", req.method().name(), req.uri(), e);
+            throw new WebException(HttpResponseStatus.BAD_REQUEST);
         }
-
-        List<String> list = queryParameters.get(key);
-        if (list != null && !list.isEmpty()) {
-            return list.getFirst();
-        }
-        return defaultValue;
     }
 
     /**
@@ -139,10 +217,13 @@ public class JaxRsRequest {
      * @return the path param or default value
      */
     public String getPathParam(String key, String defaultValue) {
-        if (matcher == null || !matcher.pattern().pattern().contains(key)) {
-            return defaultValue;
+        for (int i = 0; i < pathParamNames.length; i++) {
+            if (pathParamNames[i].equals(key)) {
+                int start = pathParamSlices[i * 2];
+                return start == -1 ? null : path.substring(start, pathParamSlices[i * 2 + 1]);
+            }
         }
-        return matcher.group(key);
+        return defaultValue;
     }
 
     public String getHeader(String key) {
@@ -157,15 +238,19 @@ public class JaxRsRequest {
         return getFormParam(key, null);
     }
 
+    /**
+     * Return the form param or default value, if non-existent. The url encoded body is indexed on first call.
+     * @param key the param key
+     * @param defaultValue default value
+     * @return the param or default value
+     */
     public String getFormParam(String key, String defaultValue) {
-        return parseUrlEncodedBody(body, key, defaultValue);
-    }
-
-    private String parseUrlEncodedBody(byte[] body, String key, String defaultValue) {
-        QueryStringDecoder        decoder    = new QueryStringDecoder(new String(body), false);
-        Map<String, List<String>> parameters = decoder.parameters();
-        List<String>              list       = parameters.get(key);
-        return list == null || list.isEmpty() ? defaultValue : list.getFirst();
+        if (formParams == null) {
+            byte[] formBody = getBody();
+            formParams = new UrlEncodedParams(formBody == null ? "" : new String(formBody, UTF_8), 0);
+        }
+        String value = formParams.get(key);
+        return value == null ? defaultValue : value;
     }
 
     public Set<Cookie> getCookie(String key) {
@@ -198,8 +283,51 @@ public class JaxRsRequest {
         return uri;
     }
 
+    /**
+     * Match the path of this request with a path pattern. The path params are only taken from a successful match.
+     *
+     * @param pathPattern the pattern
+     * @return whether the path matches the pattern
+     */
     public boolean matchesPath(Pattern pathPattern) {
-        matcher = pathPattern.matcher(getPath());
-        return matcher.matches();
+        String[] names = JaxRsResource.pathParamNames(pathPattern);
+        return matchesPath(pathPattern, names, JaxRsResource.pathParamGroups(pathPattern, names));
+    }
+
+    /**
+     * Match the path of this request with a path pattern, using path param positions precomputed from the pattern.
+     *
+     * @param pathPattern the pattern
+     * @param names the names of the path params
+     * @param groups the group index in the pattern of each path param
+     * @return whether the path matches the pattern
+     */
+    boolean matchesPath(Pattern pathPattern, String[] names, int[] groups) {
+        Matcher matcher = pathPattern.matcher(path);
+        if (!matcher.matches()) {
+            return false;
+        }
+        setPathParams(matcher, names, groups);
+        return true;
+    }
+
+    private void setPathParams(Matcher matcher, String[] names, int[] groups) {
+        int[] slices = new int[groups.length * 2];
+        for (int i = 0; i < groups.length; i++) {
+            slices[i * 2] = matcher.start(groups[i]);
+            slices[i * 2 + 1] = matcher.end(groups[i]);
+        }
+        setPathParams(names, slices);
+    }
+
+    /**
+     * Set the path params of this request as slices of the path.
+     *
+     * @param names the names of the path params
+     * @param slices the start and end index in the path of each path param, or -1 if the param is missing
+     */
+    void setPathParams(String[] names, int[] slices) {
+        this.pathParamNames = names;
+        this.pathParamSlices = slices;
     }
 }
@@ -7,6 +7,7 @@ import reactor.core.publisher.Mono;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.PrioritizedPublisher;
 import se.fortnox.reactivewizard.RequestHandler;
 import se.fortnox.reactivewizard.jaxrs.response.JaxRsResult;
 import se.fortnox.reactivewizard.util.DebugUtil;
@@ -81,6 +82,9 @@ public class JaxRsRequestHandler implements RequestHandler {
             .flatMap(result -> Mono.from(writeResult(response, result)))
             .onErrorResume(e -> Mono.from(exceptionHandler.handleException(request, response, e)))
             .doAfterTerminate(() -> resource.log(request, response, requestStartTime));
+        if (resource.getPriority() != RequestPriority.Level.NORMAL) {
+            return new PrioritizedPublisher(resourceCall, resource.getPriority());
+        }
         return resourceCall;
 
     }
@@ -9,19 +9,26 @@ import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 import se.fortnox.reactivewizard.jaxrs.params.ParamResolver;
 import se.fortnox.reactivewizard.jaxrs.params.ParamResolverFactories;
+import se.fortnox.reactivewizard.jaxrs.params.StreamingBodyParamResolver;
+import se.fortnox.reactivewizard.jaxrs.params.SynchronousParamResolver;
 import se.fortnox.reactivewizard.jaxrs.response.JaxRsResult;
 import se.fortnox.reactivewizard.jaxrs.response.JaxRsResultFactory;
 import se.fortnox.reactivewizard.jaxrs.response.JaxRsResultFactoryFactory;
+import se.fortnox.reactivewizard.jaxrs.response.ResultCache;
 import se.fortnox.reactivewizard.util.FluxRxConverter;
+import se.fortnox.reactivewizard.util.MethodInvoker;
 import se.fortnox.reactivewizard.util.ReflectionUtil;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.core.MediaType;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -37,6 +44,8 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
     private static final Logger LOG = LoggerFactory.getLogger(JaxRsResource.class);
     private static final Object EMPTY_ARG = new Object();
     private final Pattern                           pathPattern;
+    private final String[]                          pathParamNames;
+    private final int[]                             pathParamGroups;
     private final Method                            method;
     private final Method                            instanceMethod;
     private final Integer                           paramCount;
@@ -45,6 +54,12 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
     private final JaxRsMeta                         meta;
     private final RequestLogger                     requestLogger;
     private final Function<Object[], Flux<T>> methodCaller;
+    private final boolean                           streamsBody;
+    private final int[]                             asynchronousArgIndexes;
+    private final ResultCache<T>                    resultCache;
+    private final RequestPriority.Level             priority;
+    private final ResourceBulkhead                  bulkhead;
+    private final BlockingExecutor                  blockingExecutor;
 
     public JaxRsResource(Method method,
                          Object resourceInstance,
@@ -52,17 +67,54 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
                          JaxRsResultFactoryFactory jaxRsResultFactoryFactory,
                          JaxRsMeta meta,
                          RequestLogger requestLogger) {
+        this(method, resourceInstance, paramResolverFactories, jaxRsResultFactoryFactory, meta, requestLogger, null);
+    }
+
+    public JaxRsResource(Method method,
+                         Object resourceInstance,
+                         ParamResolverFactories paramResolverFactories,
+                         JaxRsResultFactoryFactory jaxRsResultFactoryFactory,
+                         JaxRsMeta meta,
+                         RequestLogger requestLogger,
+                         BlockingExecutor blockingExecutor) {
         this.method = method;
         this.meta = meta;
         this.pathPattern = createPathPattern(meta.getFullPath());
+        this.pathParamNames = pathParamNames(pathPattern);
+        this.pathParamGroups = pathParamGroups(pathPattern, pathParamNames);
         this.paramCount = method.getParameterCount();
         this.requestLogger = requestLogger;
 
         instanceMethod = ReflectionUtil.getInstanceMethod(method, resourceInstance);
 
         this.argumentExtractors = paramResolverFactories.createParamResolvers(instanceMethod, getConsumes());
+        this.streamsBody = argumentExtractors.stream().anyMatch(StreamingBodyParamResolver.class::isInstance);
+        this.asynchronousArgIndexes = asynchronousArgIndexes(argumentExtractors);
         this.resultFactory = jaxRsResultFactoryFactory.createResultFactory(this);
         this.methodCaller = createMethodCaller(method, resourceInstance);
+        this.resultCache = ResultCache.create(this);
+        RequestPriority requestPriority = resourceAnnotation(method, instanceMethod, RequestPriority.class);
+        this.priority = requestPriority == null ? RequestPriority.Level.NORMAL : requestPriority.value();
+        this.bulkhead = ResourceBulkhead.get(resourceAnnotation(method, instanceMethod, Bulkhead.class));
+        if (resourceAnnotation(method, instanceMethod, Blocking.class) == null) {
+            this.blockingExecutor = null;
+        } else {
+            this.blockingExecutor = blockingExecutor == null ? BlockingExecutor.defaultExecutor() : blockingExecutor;
+        }
+    }
+
+    /**
+     * Get an annotation of a resource method, or of its class or interface if the method is not annotated.
+     */
+    private static <A extends Annotation> A resourceAnnotation(Method method, Method instanceMethod, Class<A> annotationClass) {
+        A annotation = ReflectionUtil.getAnnotation(instanceMethod, annotationClass);
+        if (annotation == null) {
+            annotation = instanceMethod.getDeclaringClass().getAnnotation(annotationClass);
+        }
+        if (annotation == null) {
+            annotation = method.getDeclaringClass().getAnnotation(annotationClass);
+        }
+        return annotation;
     }
 
     private static Pattern createPathPattern(String path) {
@@ -76,6 +128,26 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
         return Pattern.compile(path);
     }
 
+    /**
+     * Get the path params of a path pattern.
+     *
+     * @param pathPattern the path pattern
+     * @return the names of the named groups of the pattern, in group order
+     */
+    static String[] pathParamNames(Pattern pathPattern) {
+        return pathPattern.namedGroups().entrySet().stream()
+            .sorted(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .toArray(String[]::new);
+    }
+
+    static int[] pathParamGroups(Pattern pathPattern, String[] pathParamNames) {
+        Map<String, Integer> namedGroups = pathPattern.namedGroups();
+        return Arrays.stream(pathParamNames)
+            .mapToInt(namedGroups::get)
+            .toArray();
+    }
+
     /**
      * Check if this resource can handle a request.
      * @param request the request to check for
@@ -85,23 +157,42 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
         if (!request.hasMethod(meta.getHttpMethod())) {
             return false;
         }
-        if (!request.matchesPath(pathPattern)) {
+        if (!request.matchesPath(pathPattern, pathParamNames, pathParamGroups)) {
             return false;
         }
         return true;
     }
 
     protected Mono<JaxRsResult<T>> call(JaxRsRequest request) {
+        if (resultCache != null) {
+            return resultCache.get(request, () -> callResource(request));
+        }
+        return callResource(request);
+    }
+
+    private Mono<JaxRsResult<T>> callResource(JaxRsRequest request) {
+        if (streamsBody) {
+            // The body is received by the streaming param, so it must not be collected first
+            return resolveArgs(request).map(this::call);
+        }
         return request.loadBody()
-            .flatMap(this::resolveArgs)
+            .flatMap(loadedRequest -> resolveArgs(loadedRequest)
+                .doFinally(signal -> loadedRequest.releaseBody()))
             .map(this::call);
     }
 
     private JaxRsResult<T> call(Object[] args) {
-        Flux<T> output = methodCaller.apply(args);
+        Flux<T> output = bulkhead == null ? invoke(args) : bulkhead.call(() -> invoke(args));
         return resultFactory.create(output, args);
     }
 
+    private Flux<T> invoke(Object[] args) {
+        if (blockingExecutor != null) {
+            return blockingExecutor.call(() -> methodCaller.apply(args));
+        }
+        return methodCaller.apply(args);
+    }
+
     private Function<Object[], Flux<T>> createMethodCaller(Method method, Object resourceInstance) {
         Class<?> returnType = method.getReturnType();
         Function<Object, Flux<T>> fluxConverter = FluxRxConverter.converterToFlux(returnType);
@@ -118,39 +209,57 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
                     method, returnType));
         }
 
+        MethodInvoker methodInvoker = ReflectionUtil.methodInvoker(method, resourceInstance);
         return args -> {
             try {
-                Object result = method.invoke(resourceInstance, args);
+                Object result = methodInvoker.invoke(args);
                 return fluxConverter.apply(result);
-            } catch (InvocationTargetException e) {
-                return Flux.error(e.getTargetException());
             } catch (Throwable e) {
                 return Flux.error(e);
             }
         };
     }
 
+    /**
+     * Resolve the arguments of the method. Synchronous params are set directly, so only the remaining params are zipped,
+     * and most requests are resolved without any Mono per param.
+     */
     @SuppressWarnings("unchecked")
     private Mono<Object[]> resolveArgs(JaxRsRequest request) {
-        if (argumentExtractors.isEmpty()) {
-            return Mono.just(new Object[0]);
+        Object[] args = new Object[argumentExtractors.size()];
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (argumentExtractors.get(i) instanceof SynchronousParamResolver synchronousParamResolver) {
+                    args[i] = synchronousParamResolver.resolveValue(request);
+                }
+            }
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        }
+
+        if (asynchronousArgIndexes.length == 0) {
+            return Mono.just(args);
         }
 
-        Mono<?>[] obsArgs = new Mono[argumentExtractors.size()];
+        Mono<?>[] obsArgs = new Mono[asynchronousArgIndexes.length];
         for (int i = 0; i < obsArgs.length; i++) {
-            obsArgs[i] = argumentExtractors.get(i).resolve(request).defaultIfEmpty(EMPTY_ARG);
+            obsArgs[i] = argumentExtractors.get(asynchronousArgIndexes[i]).resolve(request).defaultIfEmpty(EMPTY_ARG);
         }
 
         return Mono.zip(asList(obsArgs), array -> {
             for (int i = 0; i < array.length; i++) {
-                if (array[i] == EMPTY_ARG) {
-                    array[i] = null;
-                }
+                args[asynchronousArgIndexes[i]] = array[i] == EMPTY_ARG ? null : array[i];
             }
-            return array;
+            return args;
         });
     }
 
+    private static int[] asynchronousArgIndexes(List<ParamResolver> argumentExtractors) {
+        return IntStream.range(0, argumentExtractors.size())
+            .filter(i -> !(argumentExtractors.get(i) instanceof SynchronousParamResolver))
+            .toArray();
+    }
+
     @Override
     public int compareTo(JaxRsResource jaxRsResource) {
         int pathCompare = this.meta.getFullPath().compareTo(jaxRsResource.meta.getFullPath());
@@ -183,6 +292,10 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
         return meta.getHttpMethod();
     }
 
+    public RequestPriority.Level getPriority() {
+        return priority;
+    }
+
     public String getProduces() {
         return meta.getProduces();
     }
@@ -211,6 +324,10 @@ public class JaxRsResource<T> implements Comparable<JaxRsResource> {
         return meta.getFullPath();
     }
 
+    String[] getPathParamNames() {
+        return pathParamNames;
+    }
+
     /**
      * @return If the method defining the resource has been annotated with {@link Deprecated}
      */
@@ -16,19 +16,28 @@ public class JaxRsResourceFactory {
 
     protected final ParamResolverFactories    paramResolverFactories;
     protected final JaxRsResultFactoryFactory jaxRsResultFactoryFactory;
-    private final RequestLogger requestLogger;
+    private final RequestLogger    requestLogger;
+    private final BlockingExecutor blockingExecutor;
 
     public JaxRsResourceFactory() {
         this(new ParamResolverFactories(), new JaxRsResultFactoryFactory(), new RequestLogger());
     }
 
-    @Inject
     public JaxRsResourceFactory(ParamResolverFactories paramResolverFactories,
                                 JaxRsResultFactoryFactory jaxRsResultFactoryFactory,
                                 RequestLogger requestLogger) {
+        this(paramResolverFactories, jaxRsResultFactoryFactory, requestLogger, null);
+    }
+
+    @Inject
+    public JaxRsResourceFactory(ParamResolverFactories paramResolverFactories,
+                                JaxRsResultFactoryFactory jaxRsResultFactoryFactory,
+                                RequestLogger requestLogger,
+                                BlockingExecutor blockingExecutor) {
         this.paramResolverFactories = paramResolverFactories;
         this.jaxRsResultFactoryFactory = jaxRsResultFactoryFactory;
         this.requestLogger = requestLogger;
+        this.blockingExecutor = blockingExecutor;
     }
 
     /**
@@ -79,6 +88,6 @@ public class JaxRsResourceFactory {
     }
 
     protected JaxRsResource createResource(Method method, Object service, JaxRsMeta meta) {
-        return new JaxRsResource(method, service, paramResolverFactories, jaxRsResultFactoryFactory, meta, requestLogger);
+        return new JaxRsResource(method, service, paramResolverFactories, jaxRsResultFactoryFactory, meta, requestLogger, blockingExecutor);
     }
 }
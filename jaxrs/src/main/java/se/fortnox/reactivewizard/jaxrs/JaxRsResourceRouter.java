@@ -0,0 +1,240 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the resource that should handle a request. The segments of the resource paths are indexed in a trie per http
+ * method, where a literal segment is a child node by its name and a plain variable segment like {@code {id}} is a
+ * variable child node. Only the resources with custom regex variables or regex characters in their path are matched
+ * with their path pattern, so the path params of all other resources are resolved as slices of the request path.
+ *
+ * <p>The resource returned is always the same one that a linear scan over the sorted resources would return, since
+ * every resource is given the priority of its position in the sorted list.</p>
+ */
+class JaxRsResourceRouter {
+    private static final String REGEX_CHARS = "{}\\.[]()*+?^$|";
+
+    private final Map<HttpMethod, Node> roots = new HashMap<>();
+
+    JaxRsResourceRouter(List<JaxRsResource> resources) {
+        for (int i = 0; i < resources.size(); i++) {
+            add(i, resources.get(i));
+        }
+    }
+
+    private void add(int priority, JaxRsResource<?> resource) {
+        Node         node     = roots.computeIfAbsent(resource.getHttpMethod(), httpMethod -> new Node());
+        String       path     = resource.getPath();
+        List<String> segments = new ArrayList<>();
+        int          pos      = 0;
+        while (pos < path.length()) {
+            if (path.charAt(pos) != '/') {
+                node.patternRoutes.add(new Route(priority, resource, null));
+                return;
+            }
+            int start = pos + 1;
+            int next  = segmentEnd(path, start);
+            String segment = path.substring(start, next);
+            if (isVariable(segment)) {
+                if (node.variableChild == null) {
+                    node.variableChild = new Node();
+                }
+                node = node.variableChild;
+                segments.add(null);
+            } else if (isLiteral(segment)) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+                segments.add(segment);
+            } else {
+                node.patternRoutes.add(new Route(priority, resource, null));
+                return;
+            }
+            pos = next;
+        }
+        node.routes.add(new Route(priority, resource, segments.toArray(new String[0])));
+    }
+
+    /**
+     * Find the resource for a request.
+     *
+     * @param request the request
+     * @return the resource, or null if no resource can handle the request
+     */
+    JaxRsResource<?> findResource(JaxRsRequest request) {
+        Node root = roots.get(request.getHttpMethod());
+        if (root == null) {
+            return null;
+        }
+        String path  = request.getPath();
+        Route  route = find(root, path, 0, trimmedLength(path), request, null);
+        if (route == null) {
+            return null;
+        }
+        if (route.segments != null) {
+            request.setPathParams(route.resource.getPathParamNames(), pathParamSlices(route.segments, path));
+        }
+        return route.resource;
+    }
+
+    /**
+     * Find the route with the highest priority reachable from a node. Pattern routes are only matched if they have a
+     * higher priority than the best route found so far, so the last successful path match is always the one of the
+     * returned route.
+     *
+     * @param node the node reached so far
+     * @param path the request path
+     * @param pos the position in the path following the segments consumed so far
+     * @param end the length of the path without any trailing slashes and whitespace
+     * @param request the request
+     * @param best the best route found so far, or null
+     * @return the best matching route, or null if there is none
+     */
+    private Route find(Node node, String path, int pos, int end, JaxRsRequest request, Route best) {
+        if (pos >= end && !node.routes.isEmpty()) {
+            best = best(best, node.routes.getFirst());
+        }
+
+        if (!node.children.isEmpty() && pos < path.length() && path.charAt(pos) == '/') {
+            int start = pos + 1;
+            int next  = segmentEnd(path, start);
+            best = findChild(node, path, start, next, end, request, best);
+            // The last segment may be followed by trailing whitespace before the end of the path
+            int trimmedNext = Math.max(start, end);
+            if (trimmedNext < next) {
+                best = findChild(node, path, start, trimmedNext, end, request, best);
+            }
+        }
+
+        if (node.variableChild != null && pos < path.length() && path.charAt(pos) == '/') {
+            int start = pos + 1;
+            int next  = segmentEnd(path, start);
+            if (next > start) {
+                best = find(node.variableChild, path, next, end, request, best);
+            }
+        }
+
+        for (Route route : node.patternRoutes) {
+            if (best != null && route.priority > best.priority) {
+                break;
+            }
+            if (route.resource.canHandleRequest(request)) {
+                return route;
+            }
+        }
+        return best;
+    }
+
+    private Route findChild(Node node, String path, int start, int next, int end, JaxRsRequest request, Route best) {
+        Node child = node.children.get(path.substring(start, next));
+        if (child == null) {
+            return best;
+        }
+        return find(child, path, next, end, request, best);
+    }
+
+    private static Route best(Route first, Route second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null || first.priority < second.priority) {
+            return first;
+        }
+        return second;
+    }
+
+    /**
+     * Get the start and end index of the variable segments of a route in the path that it was found for. A variable
+     * segment spans to the next slash, just like its {@code [^/]+} pattern.
+     */
+    private static int[] pathParamSlices(String[] segments, String path) {
+        int   variables = 0;
+        for (String segment : segments) {
+            if (segment == null) {
+                variables++;
+            }
+        }
+        int[] slices = new int[variables * 2];
+        int   pos    = 0;
+        int   index  = 0;
+        for (String segment : segments) {
+            int start = pos + 1;
+            if (segment == null) {
+                pos = segmentEnd(path, start);
+                slices[index++] = start;
+                slices[index++] = pos;
+            } else {
+                pos = start + segment.length();
+            }
+        }
+        return slices;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int next = path.indexOf('/', start);
+        return next == -1 ? path.length() : next;
+    }
+
+    /**
+     * Resource paths allow any trailing slashes and whitespace, so those are not part of the path when routing.
+     */
+    private static int trimmedLength(String path) {
+        int end = path.length();
+        while (end > 0 && isTrailing(path.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isTrailing(char character) {
+        return character == '/'
+            || character == ' '
+            || character == '\t'
+            || character == '\n'
+            || character == '\u000B'
+            || character == '\f'
+            || character == '\r';
+    }
+
+    private static boolean isVariable(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '{' || segment.charAt(segment.length() - 1) != '}') {
+            return false;
+        }
+        String name = segment.substring(1, segment.length() - 1);
+        return name.indexOf(':') == -1 && name.indexOf('{') == -1 && name.indexOf('}') == -1;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_CHARS.indexOf(segment.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children      = new HashMap<>();
+        private final List<Route>       routes        = new ArrayList<>();
+        private final List<Route>       patternRoutes = new ArrayList<>();
+        private       Node              variableChild;
+    }
+
+    private static class Route {
+        private final int              priority;
+        private final JaxRsResource<?> resource;
+        /**
+         * The literal segments of the path, with null for variable segments. Null for routes matched by pattern.
+         */
+        private final String[]         segments;
+
+        private Route(int priority, JaxRsResource<?> resource, String[] segments) {
+            this.priority = priority;
+            this.resource = resource;
+            this.segments = segments;
+        }
+    }
+}
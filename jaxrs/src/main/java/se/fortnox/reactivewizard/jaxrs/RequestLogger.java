@@ -2,6 +2,7 @@ package se.fortnox.reactivewizard.jaxrs;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import reactor.netty.http.server.HttpServerRequest;
@@ -14,6 +15,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.UnaryOperator;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toMap;
 
@@ -28,8 +30,15 @@ public class RequestLogger {
 
     private final Map<String, UnaryOperator<String>> headerTransformationsClient = new HashMap<>();
     private final Map<String, UnaryOperator<String>> headerTransformationsServer = new HashMap<>();
+    private final AsyncAccessLog                     asyncAccessLog;
 
     public RequestLogger() {
+        this(new AccessLogConfig());
+    }
+
+    @Inject
+    public RequestLogger(AccessLogConfig accessLogConfig) {
+        this.asyncAccessLog = accessLogConfig.isAsynchronous() ? AsyncAccessLog.start(accessLogConfig) : null;
         redactAuthorization();
     }
 
@@ -155,7 +164,8 @@ public class RequestLogger {
     }
 
     /**
-     * Write a log entry for a request/response pair.
+     * Write a log entry for a request/response pair. If the access log is asynchronous, the entry is only recorded
+     * here, and written with a fixed layout by a background thread.
      *
      * @param request          The request to log
      * @param response         The response to log
@@ -164,6 +174,12 @@ public class RequestLogger {
      */
     public void logRequestResponse(HttpServerRequest request, HttpServerResponse response, long requestStartTime, Logger log) {
         long duration = System.currentTimeMillis() - requestStartTime;
+        if (asyncAccessLog != null) {
+            HttpResponseStatus status = response.status();
+            asyncAccessLog.record(log, status == null ? 0 : status.code(), request.method(), request.uri(), duration,
+                request.requestHeaders().getInt(CONTENT_LENGTH, -1), response.responseHeaders().getInt(CONTENT_LENGTH, -1));
+            return;
+        }
         StringBuilder logLine = new StringBuilder();
         logAccess(request, response, duration, logLine);
         if (log.isDebugEnabled()) {
@@ -0,0 +1,149 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.event.Level;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static java.lang.String.format;
+
+/**
+ * Limits the number of concurrent calls of the resources annotated with a {@link Bulkhead}. A call holds its place in
+ * the bulkhead until its output completes, and calls over the limit wait in a bounded queue until a place is handed
+ * over to them. The bulkheads are shared by name across all resources.
+ */
+class ResourceBulkhead {
+    private static final String                        ERROR_BULKHEAD_FULL = "bulkhead.full";
+    private static final Map<String, ResourceBulkhead> BULKHEADS           = new ConcurrentHashMap<>();
+
+    private final String        name;
+    private final int           maxConcurrent;
+    private final int           maxQueued;
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private final Counter       rejected;
+    private       int           active;
+
+    ResourceBulkhead(String name, int maxConcurrent, int maxQueued) {
+        this(name, "IN_bulkhead:" + name, maxConcurrent, maxQueued);
+    }
+
+    ResourceBulkhead(String name, String metricName, int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException(format(
+                "Bulkhead %s must allow at least one concurrent call and can not have a negative queue size", name));
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+
+        MetricRegistry registry = Metrics.registry();
+        registry.remove(metricName + "_active");
+        registry.register(metricName + "_active", (Gauge<Integer>)this::getActive);
+        registry.remove(metricName + "_queued");
+        registry.register(metricName + "_queued", (Gauge<Integer>)this::getQueued);
+        this.rejected = registry.counter(metricName + "_rejected");
+    }
+
+    /**
+     * Get the bulkhead with the name of an annotation, creating it on first use.
+     *
+     * @param bulkhead the annotation
+     * @return the bulkhead, or null if there is no annotation
+     * @throws IllegalArgumentException if the bulkhead exists with other limits
+     */
+    static ResourceBulkhead get(Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            return null;
+        }
+        ResourceBulkhead resourceBulkhead = BULKHEADS.computeIfAbsent(bulkhead.value(),
+            name -> new ResourceBulkhead(name, bulkhead.maxConcurrent(), bulkhead.maxQueued()));
+        if (resourceBulkhead.maxConcurrent != bulkhead.maxConcurrent() || resourceBulkhead.maxQueued != bulkhead.maxQueued()) {
+            throw new IllegalArgumentException(format(
+                "Bulkhead %s is used with different limits. All resources in a bulkhead must use the same limits", bulkhead.value()));
+        }
+        return resourceBulkhead;
+    }
+
+    /**
+     * Call a resource once there is room in the bulkhead, and keep its place until the output of the call terminates.
+     *
+     * @param call calls the resource
+     * @param <T> the type of the output
+     * @return the output, or an error with status 503 if the queue is full
+     */
+    <T> Flux<T> call(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Waiter waiter = null;
+            synchronized (this) {
+                if (active < maxConcurrent) {
+                    active++;
+                } else if (waiters.size() >= maxQueued) {
+                    rejected.inc();
+                    return Flux.error(new WebException(SERVICE_UNAVAILABLE, ERROR_BULKHEAD_FULL)
+                        .withErrorParams(name)
+                        .withLogLevel(Level.WARN));
+                } else {
+                    waiter = new Waiter();
+                    waiters.add(waiter);
+                }
+            }
+            Flux<T> output = waiter == null ? Flux.defer(call) : waiter.turn.asMono().thenMany(Flux.defer(call));
+            // A single doFinally around both the wait and the call, so that the place is left exactly once, even if
+            // the call is cancelled as it is handed its place
+            Waiter leavingWaiter = waiter;
+            return output.doFinally(signal -> leave(leavingWaiter));
+        });
+    }
+
+    /**
+     * Leave the bulkhead when a call terminates or is cancelled. A call that is still waiting is removed from the
+     * queue, while the place of a call that was handed one is released.
+     */
+    private void leave(Waiter waiter) {
+        if (waiter != null) {
+            synchronized (this) {
+                if (waiters.remove(waiter)) {
+                    return;
+                }
+            }
+        }
+        release();
+    }
+
+    /**
+     * Hand the place of a terminated call over to the next waiting call, if any.
+     */
+    private void release() {
+        Waiter next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        next.turn.tryEmitEmpty();
+    }
+
+    synchronized int getActive() {
+        return active;
+    }
+
+    synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private static class Waiter {
+        private final Sinks.Empty<Void> turn = Sinks.empty();
+    }
+}
@@ -0,0 +1,135 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The params of a query string or an url encoded form body, indexed by name in a single pass over the source. The names
+ * are decoded when indexed, while the values are kept as slices of the source until they are requested. The params are
+ * split the same way as {@link QueryStringDecoder} splits them, and only the first value of each name is kept.
+ */
+class UrlEncodedParams {
+    private static final int MAX_PARAMS = 1024;
+
+    private final String               source;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private       int[]                slices  = new int[16];
+    private       String[]             values  = new String[8];
+
+    /**
+     * Index the params of a source.
+     *
+     * @param source the source
+     * @param from the position in the source where the params start, optionally at a leading question mark
+     * @throws IllegalArgumentException if a name is not properly encoded
+     */
+    UrlEncodedParams(String source, int from) {
+        this.source = source;
+        int length = source.length();
+        if (from < length && source.charAt(from) == '?') {
+            from++;
+        }
+        int nameStart  = from;
+        int valueStart = -1;
+        int params     = 0;
+        int pos        = from;
+        loop:
+        for (; pos < length; pos++) {
+            switch (source.charAt(pos)) {
+                case '=':
+                    if (nameStart == pos) {
+                        nameStart = pos + 1;
+                    } else if (valueStart < nameStart) {
+                        valueStart = pos + 1;
+                    }
+                    break;
+                case ';':
+                case '&':
+                    if (add(nameStart, valueStart, pos) && ++params == MAX_PARAMS) {
+                        return;
+                    }
+                    nameStart = pos + 1;
+                    break;
+                case '#':
+                    break loop;
+                default:
+                    break;
+            }
+        }
+        add(nameStart, valueStart, pos);
+    }
+
+    /**
+     * Index the params of a query string of an uri.
+     *
+     * @param uri the uri
+     * @return the params
+     * @throws IllegalArgumentException if a name is not properly encoded
+     */
+    static UrlEncodedParams fromUri(String uri) {
+        int pathEnd = 0;
+        while (pathEnd < uri.length() && uri.charAt(pathEnd) != '?' && uri.charAt(pathEnd) != '#') {
+            pathEnd++;
+        }
+        return new UrlEncodedParams(uri, pathEnd);
+    }
+
+    /**
+     * Get the first value of a param, decoding it on first call.
+     *
+     * @param name the decoded name of the param
+     * @return the value, or null if the param is missing
+     * @throws IllegalArgumentException if the value is not properly encoded
+     */
+    String get(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = values[index];
+        if (value == null) {
+            value = decode(slices[index * 2], slices[index * 2 + 1]);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    private boolean add(int nameStart, int valueStart, int valueEnd) {
+        if (nameStart >= valueEnd) {
+            return false;
+        }
+        if (valueStart <= nameStart) {
+            valueStart = valueEnd + 1;
+        }
+        String name  = decode(nameStart, valueStart - 1);
+        int    index = indexes.size();
+        if (indexes.putIfAbsent(name, index) != null) {
+            return true;
+        }
+        if (index == values.length) {
+            values = Arrays.copyOf(values, index * 2);
+            slices = Arrays.copyOf(slices, index * 4);
+        }
+        slices[index * 2] = valueStart;
+        slices[index * 2 + 1] = Math.max(valueStart, valueEnd);
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        if (start >= end) {
+            return "";
+        }
+        for (int pos = start; pos < end; pos++) {
+            char character = source.charAt(pos);
+            if (character == '%' || character == '+') {
+                return QueryStringDecoder.decodeComponent(source.substring(start, end), UTF_8);
+            }
+        }
+        return source.substring(start, end);
+    }
+}
@@ -1,27 +1,33 @@
 package se.fortnox.reactivewizard.jaxrs.params;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
 import se.fortnox.reactivewizard.jaxrs.WebException;
 import se.fortnox.reactivewizard.jaxrs.params.annotated.AnnotatedParamResolverFactories;
 import se.fortnox.reactivewizard.jaxrs.params.annotated.AnnotatedParamResolverFactory;
 import se.fortnox.reactivewizard.jaxrs.params.deserializing.BodyDeserializer;
 import se.fortnox.reactivewizard.jaxrs.params.deserializing.DeserializerException;
 import se.fortnox.reactivewizard.jaxrs.params.deserializing.DeserializerFactory;
+import se.fortnox.reactivewizard.json.JsonArrayStreamDeserializer;
+import se.fortnox.reactivewizard.json.Types;
 import se.fortnox.reactivewizard.util.ReflectionUtil;
 
 import javax.ws.rs.DefaultValue;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 
 /**
@@ -96,24 +102,49 @@ public class ParamResolverFactories {
             }
         }
 
+        if (ReflectionUtil.getRawType(paramType.getType()) == Flux.class) {
+            ParamResolver<T> streamingBodyParamResolver = createStreamingBodyParamResolver(paramType, consumesAnnotation);
+            if (streamingBodyParamResolver != null) {
+                return streamingBodyParamResolver;
+            }
+        }
+
         BodyDeserializer<T> bodyDeserializer = deserializerFactory.getBodyDeserializer(paramType, consumesAnnotation);
         if (bodyDeserializer != null) {
-            return request -> {
-                T deserializedBody = deserializeBody(bodyDeserializer, request.getBody());
+            return (SynchronousParamResolver<T>)request -> {
+                T deserializedBody = deserializeBody(bodyDeserializer, request);
 
                 if (Objects.isNull(deserializedBody)) {
                     String body = new String(request.getBody(), StandardCharsets.UTF_8);
                     LOG.warn("Body deserializer returned null when deserializing body: '{}'", body);
-                    return Mono.error(new WebException(HttpResponseStatus.BAD_REQUEST));
+                    throw new WebException(HttpResponseStatus.BAD_REQUEST);
                 }
 
-                return Mono.just(deserializedBody);
+                return deserializedBody;
             };
         }
 
         throw new RuntimeException("Could not find any deserializer for param of type " + paramType.getType());
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> ParamResolver<T> createStreamingBodyParamResolver(TypeReference<T> paramType, String[] consumesAnnotation) {
+        if (!(paramType.getType() instanceof ParameterizedType parameterizedType)) {
+            return null;
+        }
+        TypeReference<?> elementType = Types.toReference(parameterizedType.getActualTypeArguments()[0]);
+        return (ParamResolver<T>)createStreamingBodyParamResolverOfElements(elementType, consumesAnnotation);
+    }
+
+    private <E> ParamResolver<?> createStreamingBodyParamResolverOfElements(TypeReference<E> elementType, String[] consumesAnnotation) {
+        Supplier<JsonArrayStreamDeserializer<E>> deserializerSupplier =
+            deserializerFactory.getJsonArrayStreamDeserializer(elementType, consumesAnnotation);
+        if (deserializerSupplier == null) {
+            return null;
+        }
+        return new StreamingBodyParamResolver<>(deserializerSupplier);
+    }
+
     /**
      * Find the value of the DefaultValue annotation.
      * @param parameterAnnotations the annotations
@@ -141,9 +172,13 @@ public class ParamResolverFactories {
         return null;
     }
 
-    private <T> T deserializeBody(BodyDeserializer<T> deserializer, byte[] value) {
+    private <T> T deserializeBody(BodyDeserializer<T> deserializer, JaxRsRequest request) {
         try {
-            return deserializer.deserialize(value);
+            ByteBuf bodyBuf = request.getBodyBuf();
+            if (bodyBuf != null) {
+                return deserializer.deserialize(bodyBuf);
+            }
+            return deserializer.deserialize(request.getBody());
         } catch (DeserializerException deserializerException) {
             throw new WebException(HttpResponseStatus.BAD_REQUEST, deserializerException.getMessage());
         }
@@ -46,6 +46,10 @@ public class ParamResolvers {
 
     private Class<?> getResolverTargetClass(ParamResolver paramResolver) {
         try {
+            if (paramResolver instanceof SynchronousParamResolver) {
+                Method method = paramResolver.getClass().getMethod("resolveValue", JaxRsRequest.class);
+                return ReflectionUtil.getRawType(method.getGenericReturnType());
+            }
             Method method = paramResolver.getClass().getMethod("resolve", JaxRsRequest.class);
             return ReflectionUtil.getRawType(ReflectionUtil.getTypeOfFluxOrMono(method));
         } catch (NoSuchMethodException e) {
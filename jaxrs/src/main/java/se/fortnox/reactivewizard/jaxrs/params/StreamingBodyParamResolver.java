@@ -0,0 +1,35 @@
+package se.fortnox.reactivewizard.jaxrs.params;
+
+import reactor.core.publisher.Flux;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
+import se.fortnox.reactivewizard.json.JsonArrayStreamDeserializer;
+
+import java.util.function.Supplier;
+
+/**
+ * Resolves a {@code Flux<T>} body parameter from a json array body. The elements are deserialized as the body arrives,
+ * so the body is never collected in memory and the resource can start processing the first elements before the last
+ * ones have been received. Subscribing to the Flux more than once is not supported, since the body can only be received
+ * once. Malformed json fails the Flux with an {@link se.fortnox.reactivewizard.json.InvalidJsonException}.
+ *
+ * @param <T> the type of the array elements
+ */
+public class StreamingBodyParamResolver<T> implements SynchronousParamResolver<Flux<T>> {
+    private final Supplier<JsonArrayStreamDeserializer<T>> deserializerSupplier;
+
+    public StreamingBodyParamResolver(Supplier<JsonArrayStreamDeserializer<T>> deserializerSupplier) {
+        this.deserializerSupplier = deserializerSupplier;
+    }
+
+    @Override
+    public Flux<T> resolveValue(JaxRsRequest request) {
+        return Flux.defer(() -> {
+            JsonArrayStreamDeserializer<T> deserializer = deserializerSupplier.get();
+            return request.receiveBody()
+                // The chunks are released once emitted, so they are parsed before any elements are queued
+                .map(chunk -> deserializer.deserialize(chunk.nioBuffer()))
+                .concatMapIterable(elements -> elements)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(deserializer.complete())));
+        });
+    }
+}
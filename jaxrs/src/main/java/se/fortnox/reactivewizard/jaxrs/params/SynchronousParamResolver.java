@@ -0,0 +1,27 @@
+package se.fortnox.reactivewizard.jaxrs.params;
+
+import reactor.core.publisher.Mono;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
+
+/**
+ * A {@link ParamResolver} that resolves its value without any asynchronous work, like resolvers reading the path, query,
+ * headers or loaded body of the request. Resources set the values of these resolvers directly, without going through
+ * a Mono per parameter.
+ *
+ * @param <T> the type that this ParamResolver can resolve from a request
+ */
+public interface SynchronousParamResolver<T> extends ParamResolver<T> {
+
+    /**
+     * Resolve the value from the request.
+     *
+     * @param request the request
+     * @return the value, or null if there is none
+     */
+    T resolveValue(JaxRsRequest request);
+
+    @Override
+    default Mono<T> resolve(JaxRsRequest request) {
+        return Mono.justOrEmpty(resolveValue(request));
+    }
+}
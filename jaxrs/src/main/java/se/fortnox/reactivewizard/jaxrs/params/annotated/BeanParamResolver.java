@@ -6,7 +6,9 @@ import reactor.core.publisher.Mono;
 import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
 import se.fortnox.reactivewizard.jaxrs.params.ParamResolver;
 import se.fortnox.reactivewizard.jaxrs.params.ParamResolverFactories;
+import se.fortnox.reactivewizard.jaxrs.params.SynchronousParamResolver;
 import se.fortnox.reactivewizard.json.Types;
+import se.fortnox.reactivewizard.util.MethodInvoker;
 import se.fortnox.reactivewizard.util.ReflectionUtil;
 
 import java.lang.annotation.Annotation;
@@ -21,22 +23,16 @@ import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
 
-public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
+public class BeanParamResolver<T> implements ParamResolver<T> {
 
     private static final Object NULL_VALUE = new Object();
 
     private final Function<JaxRsRequest, Mono<T>> resolver;
 
     public BeanParamResolver(Function<JaxRsRequest, Mono<T>> resolver) {
-        super(null, null, null);
         this.resolver = resolver;
     }
 
-    @Override
-    protected String getValue(JaxRsRequest request) {
-        return null;
-    }
-
     @Override
     public Mono<T> resolve(JaxRsRequest request) {
         return resolver.apply(request);
@@ -62,10 +58,11 @@ public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
             }
         }
 
-        private <T> BeanParamResolver<T> createForClass(Class<T> beanParamCls) {
+        private <T> ParamResolver<T> createForClass(Class<T> beanParamCls) {
             Supplier<T> instantiator = ReflectionUtil.instantiator(beanParamCls);
 
-            List<BiFunction<T, JaxRsRequest, Mono<T>>> fieldSetters = new ArrayList<>();
+            List<ParamResolver<?>>      fieldResolvers = new ArrayList<>();
+            List<BiConsumer<T, Object>> setters        = new ArrayList<>();
 
             for (Field field : getAllDeclaredFields(beanParamCls)) {
                 Annotation[] fieldAnnotations = field.getAnnotations();
@@ -80,18 +77,29 @@ public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
                         if (setterOptional.isEmpty()) {
                             continue;
                         }
-                        BiConsumer<T, Object> setter = setterOptional.get();
-                        fieldSetters.add((instance, request) -> {
-                            Mono<?> fieldValue = fieldResolver.resolve(request);
-                            return fieldValue.map(value -> {
-                                setter.accept(instance, value);
-                                return (T)instance;
-                            });
-                        });
+                        fieldResolvers.add(fieldResolver);
+                        setters.add(setterOptional.get());
                     }
                 }
             }
 
+            if (allSynchronous(fieldResolvers)) {
+                return createSynchronousForClass(instantiator, fieldResolvers, setters);
+            }
+
+            List<BiFunction<T, JaxRsRequest, Mono<T>>> fieldSetters = new ArrayList<>();
+            for (int i = 0; i < fieldResolvers.size(); i++) {
+                ParamResolver<?>      fieldResolver = fieldResolvers.get(i);
+                BiConsumer<T, Object> setter        = setters.get(i);
+                fieldSetters.add((instance, request) -> {
+                    Mono<?> fieldValue = fieldResolver.resolve(request);
+                    return fieldValue.map(value -> {
+                        setter.accept(instance, value);
+                        return (T)instance;
+                    });
+                });
+            }
+
             Function<JaxRsRequest, Mono<T>> resolver = (JaxRsRequest request) -> {
                 T instance = instantiator.get();
                 List<Mono<T>> runSetters = new ArrayList<>(fieldSetters.size());
@@ -104,13 +112,36 @@ public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
             return new BeanParamResolver<>(resolver);
         }
 
-        private <T> BeanParamResolver<T> createForRecord(Class<T> beanParamCls) {
+        /**
+         * Resolve the fields one after another, with no Mono per field, when all fields are resolved synchronously. Like
+         * the asynchronous resolver, a field is only set if it has a value.
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> SynchronousParamResolver<T> createSynchronousForClass(Supplier<T> instantiator,
+                                                                                 List<ParamResolver<?>> fieldResolvers,
+                                                                                 List<BiConsumer<T, Object>> setters) {
+            SynchronousParamResolver<?>[] resolvers    = fieldResolvers.toArray(new SynchronousParamResolver<?>[0]);
+            BiConsumer<T, Object>[]       fieldSetters = setters.toArray(new BiConsumer[0]);
+            return request -> {
+                T instance = instantiator.get();
+                for (int i = 0; i < resolvers.length; i++) {
+                    Object value = resolvers[i].resolveValue(request);
+                    if (value != null) {
+                        fieldSetters[i].accept(instance, value);
+                    }
+                }
+                return instance;
+            };
+        }
+
+        private <T> ParamResolver<T> createForRecord(Class<T> beanParamCls) {
             var constructors = beanParamCls.getDeclaredConstructors();
             if (constructors.length != 1) {
                 throw new IllegalArgumentException("A @BeanParam record may only have a single constructor");
             }
 
             var constructor = constructors[0];
+            var constructorInvoker = ReflectionUtil.constructorInvoker(constructor);
 
             var constructorParams = constructor.getParameters();
             var constructorArgumentResolvers = new ArrayList<ParamResolver<Object>>(constructorParams.length);
@@ -140,6 +171,17 @@ public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
                 constructorArgumentResolvers.add(paramResolver);
             }
 
+            if (allSynchronous(constructorArgumentResolvers)) {
+                var resolvers = constructorArgumentResolvers.toArray(new SynchronousParamResolver<?>[0]);
+                return (SynchronousParamResolver<T>)request -> {
+                    Object[] args = new Object[resolvers.length];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = resolvers[i].resolveValue(request);
+                    }
+                    return newRecord(constructorInvoker, args);
+                };
+            }
+
             Function<JaxRsRequest, Mono<T>> resolver = (JaxRsRequest request) -> {
                 var argsFlux = Flux.fromIterable(constructorArgumentResolvers)
                     .map(it -> it.resolve(request).defaultIfEmpty(NULL_VALUE));
@@ -153,19 +195,25 @@ public class BeanParamResolver<T> extends AnnotatedParamResolver<T> {
                         }
                         return acc;
                     })
-                    .map(args -> {
-                        try {
-                            //noinspection unchecked
-                            return (T)(constructor.newInstance(args.toArray()));
-                        } catch (Throwable e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+                    .map(args -> newRecord(constructorInvoker, args.toArray()));
             };
 
             return new BeanParamResolver<>(resolver);
         }
 
+        private static <T> T newRecord(MethodInvoker constructorInvoker, Object[] args) {
+            try {
+                //noinspection unchecked
+                return (T)constructorInvoker.invoke(args);
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static boolean allSynchronous(List<? extends ParamResolver<?>> paramResolvers) {
+            return paramResolvers.stream().allMatch(SynchronousParamResolver.class::isInstance);
+        }
+
         private static List<Field> getAllDeclaredFields(Class<?> type) {
             List<Field> fields = new ArrayList<>();
             for (Class<?> c = type; c != null; c = c.getSuperclass()) {
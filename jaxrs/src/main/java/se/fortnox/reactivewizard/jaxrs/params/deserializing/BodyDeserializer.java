@@ -1,8 +1,23 @@
 package se.fortnox.reactivewizard.jaxrs.params.deserializing;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
 /**
  * Parses an object out of a byte[].
  */
 public interface BodyDeserializer<T> {
     T deserialize(byte[] value) throws DeserializerException;
+
+    /**
+     * Parses an object out of a buffer, without changing the reader index of the buffer. Copies the buffer to a byte[]
+     * unless overridden by a deserializer that can read the buffer directly.
+     *
+     * @param value the buffer
+     * @return the parsed object
+     * @throws DeserializerException if the value cannot be parsed
+     */
+    default T deserialize(ByteBuf value) throws DeserializerException {
+        return deserialize(ByteBufUtil.getBytes(value));
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import se.fortnox.reactivewizard.json.JsonArrayStreamDeserializer;
 import se.fortnox.reactivewizard.json.JsonDeserializerFactory;
 import se.fortnox.reactivewizard.util.ReflectionUtil;
 
@@ -21,7 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Map.entry;
 
@@ -148,8 +149,8 @@ public class DeserializerFactory {
         String consume = consumes[0];
 
         if (MediaType.APPLICATION_JSON.equals(consume)) {
-            Function<byte[], T> jsonDeserializer = jsonDeserializerFactory.createByteDeserializer(paramType);
-            return jsonDeserializer::apply;
+            return new JsonBodyDeserializer<>(jsonDeserializerFactory.createByteDeserializer(paramType),
+                jsonDeserializerFactory.createInputStreamDeserializer(paramType));
         } else if (MediaType.TEXT_PLAIN.equals(consume) || MediaType.APPLICATION_OCTET_STREAM.equals(consume)) {
             if (paramType.getType().equals(String.class)) {
                 return bytes -> (T)new String(bytes);
@@ -160,4 +161,22 @@ public class DeserializerFactory {
         }
         return null;
     }
+
+    /**
+     * Return a supplier of deserializers that stream the elements of a json array body, if the consumes requirements
+     * allow json.
+     *
+     * @param elementType the type of the array elements
+     * @param consumes    the consumes requirements
+     * @param <T>         type of the elements
+     * @return the supplier, or null if the body is not json
+     */
+    @Nullable
+    public <T> Supplier<JsonArrayStreamDeserializer<T>> getJsonArrayStreamDeserializer(TypeReference<T> elementType, String[] consumes) {
+        // Only support a single consumes for now
+        if (!MediaType.APPLICATION_JSON.equals(consumes[0])) {
+            return null;
+        }
+        return jsonDeserializerFactory.createArrayStreamDeserializer(elementType);
+    }
 }
@@ -0,0 +1,30 @@
+package se.fortnox.reactivewizard.jaxrs.params.deserializing;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Deserializes a json body. Buffers are parsed directly, without copying them to a byte[] first.
+ */
+public class JsonBodyDeserializer<T> implements BodyDeserializer<T> {
+    private final Function<byte[], T>      byteDeserializer;
+    private final Function<InputStream, T> inputStreamDeserializer;
+
+    public JsonBodyDeserializer(Function<byte[], T> byteDeserializer, Function<InputStream, T> inputStreamDeserializer) {
+        this.byteDeserializer = byteDeserializer;
+        this.inputStreamDeserializer = inputStreamDeserializer;
+    }
+
+    @Override
+    public T deserialize(byte[] value) {
+        return byteDeserializer.apply(value);
+    }
+
+    @Override
+    public T deserialize(ByteBuf value) {
+        return inputStreamDeserializer.apply(new ByteBufInputStream(value.duplicate()));
+    }
+}
@@ -1,17 +1,23 @@
 package se.fortnox.reactivewizard.jaxrs.response;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpStatusClass;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 import reactor.netty.http.server.HttpServerResponse;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.function.UnaryOperator;
 
 import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
@@ -25,14 +31,34 @@ public class JaxRsResult<T> {
     protected static final Mono<byte[]> EMPTY_RESPONSE_MONO = Mono.just(EMPTY_RESPONSE);
 
     protected final Function<Flux<T>, Flux<byte[]>>    serializer;
+    protected final BiFunction<Flux<T>, ByteBufAllocator, Flux<ByteBuf>> bufferSerializer;
     protected final Map<String, String> headers = new HashMap<>();
     protected       Flux<T>             output;
     protected       HttpResponseStatus  responseStatus;
 
     public JaxRsResult(Flux<T> output, HttpResponseStatus responseStatus, Function<Flux<T>, Flux<byte[]>> serializer, Map<String, String> headers) {
+        this(output, responseStatus, serializer, null, headers);
+    }
+
+    /**
+     * Create a result that is written with the buffer serializer, if there is one, and with the byte array serializer
+     * otherwise.
+     *
+     * @param output the output
+     * @param responseStatus the response status
+     * @param serializer the byte array serializer
+     * @param bufferSerializer the serializer writing into buffers from the allocator of the response, or null
+     * @param headers the headers
+     */
+    public JaxRsResult(Flux<T> output,
+                       HttpResponseStatus responseStatus,
+                       Function<Flux<T>, Flux<byte[]>> serializer,
+                       BiFunction<Flux<T>, ByteBufAllocator, Flux<ByteBuf>> bufferSerializer,
+                       Map<String, String> headers) {
         this.output = output;
         this.responseStatus = responseStatus;
         this.serializer     = serializer;
+        this.bufferSerializer = bufferSerializer;
         this.headers.putAll(headers);
     }
 
@@ -74,8 +100,62 @@ public class JaxRsResult<T> {
      * @return empty publisher
      */
     public Publisher<Void> write(HttpServerResponse response) {
+        if (bufferSerializer != null) {
+            return writeBuffers(response, bufferSerializer.apply(output, response.alloc()));
+        }
+        return write(response, serializer.apply(output), this::getContentLength,
+            bytes -> response.sendByteArray(bytes != null ? Mono.just(bytes) : EMPTY_RESPONSE_MONO));
+    }
+
+    /**
+     * Write the serialized buffers. A single buffer is sent with a Content-Length header, while a result serialized
+     * into several buffers is sent with chunked transfer encoding as soon as the second buffer is available.
+     */
+    private Flux<Void> writeBuffers(HttpServerResponse response, Flux<ByteBuf> buffers) {
+        return buffers.<Void>switchOnFirst((firstSignal, allBuffers) -> {
+            if (!firstSignal.hasValue()) {
+                return writeSingleBuffer(response, allBuffers);
+            }
+            ByteBuf firstBuffer = firstSignal.get();
+            return allBuffers.<ByteBuf>handle(skipFirst()).<Void>switchOnFirst((secondSignal, remainingBuffers) -> {
+                if (secondSignal.isOnComplete()) {
+                    return writeSingleBuffer(response, Flux.just(firstBuffer));
+                }
+                if (secondSignal.isOnError()) {
+                    firstBuffer.release();
+                    return Flux.error(secondSignal.getThrowable());
+                }
+                response.status(responseStatus);
+                headers.forEach(response::addHeader);
+                return response.send(remainingBuffers.startWith(firstBuffer));
+            });
+        });
+    }
+
+    /**
+     * Drop the first buffer, which is sent separately. Unlike skip, handle does not pass the dropped buffer to the
+     * discard hooks, which could release it before it is sent.
+     */
+    private static BiConsumer<ByteBuf, SynchronousSink<ByteBuf>> skipFirst() {
+        AtomicBoolean skipped = new AtomicBoolean();
+        return (buffer, sink) -> {
+            if (skipped.getAndSet(true)) {
+                sink.next(buffer);
+            }
+        };
+    }
+
+    private Flux<Void> writeSingleBuffer(HttpServerResponse response, Flux<ByteBuf> buffer) {
+        return write(response, buffer, ByteBuf::readableBytes, chunk -> response.send(Mono.just(chunk)));
+    }
+
+    private <C> Flux<Void> write(HttpServerResponse response,
+                                 Flux<C> serializedOutput,
+                                 ToIntFunction<C> contentLengthFunction,
+                                 Function<C, Publisher<Void>> send
+    ) {
         AtomicBoolean headersWritten = new AtomicBoolean();
-        return serializer.apply(output)
+        return serializedOutput
             .switchIfEmpty(Flux.defer(() -> {
                 if (responseStatus.codeClass() == HttpStatusClass.SUCCESS) {
                     responseStatus = HttpResponseStatus.NO_CONTENT;
@@ -85,8 +165,8 @@ public class JaxRsResult<T> {
                 response.addHeader(CONTENT_LENGTH, "0");
                 return Flux.empty();
             }))
-            .flatMap(bytes -> {
-                int contentLength = getContentLength(bytes);
+            .flatMap(chunk -> {
+                int contentLength = contentLengthFunction.applyAsInt(chunk);
 
                 if (headersWritten.compareAndSet(false, true)) {
                     response.status(responseStatus);
@@ -94,15 +174,11 @@ public class JaxRsResult<T> {
                     response.addHeader(CONTENT_LENGTH, String.valueOf(contentLength));
                 }
 
-                if (contentLength > 0) {
-                    return response.sendByteArray(Mono.just(bytes));
-                }
-
-                if (response.status().codeClass() == HttpStatusClass.SUCCESS) {
+                if (contentLength == 0 && response.status().codeClass() == HttpStatusClass.SUCCESS) {
                     response.status(HttpResponseStatus.NO_CONTENT);
                 }
 
-                return response.sendByteArray(EMPTY_RESPONSE_MONO);
+                return send.apply(chunk);
             });
     }
 
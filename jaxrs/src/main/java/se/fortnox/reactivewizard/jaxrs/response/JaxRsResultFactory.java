@@ -1,5 +1,7 @@
 package se.fortnox.reactivewizard.jaxrs.response;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import reactor.core.publisher.Flux;
@@ -12,6 +14,7 @@ import se.fortnox.reactivewizard.util.ReflectionUtil;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 public class JaxRsResultFactory<T> {
@@ -19,6 +22,7 @@ public class JaxRsResultFactory<T> {
     protected final HttpResponseStatus responseStatus;
     protected final Class<T>           rawReturnType;
     protected Function<Flux<T>, Flux<byte[]>> serializer;
+    protected BiFunction<Flux<T>, ByteBufAllocator, Flux<ByteBuf>> bufferSerializer;
     protected final Map<String, String> headers = new HashMap<>();
     private final ResultTransformer<T> transformers;
 
@@ -30,6 +34,7 @@ public class JaxRsResultFactory<T> {
 
         boolean isFlux = FluxRxConverter.isFlux(method.getReturnType());
         serializer = jaxRsResultSerializerFactory.createSerializer(resource.getProduces(), rawReturnType, isFlux);
+        bufferSerializer = jaxRsResultSerializerFactory.createBufferSerializer(resource.getProduces(), rawReturnType, isFlux);
 
         transformers = resultTransformerFactories.createTransformers(resource);
 
@@ -58,6 +63,7 @@ public class JaxRsResultFactory<T> {
         return new JaxRsResult<>(output,
             responseStatus,
             serializer,
+            bufferSerializer,
             headers
         );
     }
@@ -1,14 +1,23 @@
 package se.fortnox.reactivewizard.jaxrs.response;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import jakarta.inject.Inject;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import se.fortnox.reactivewizard.jaxrs.Stream;
 import se.fortnox.reactivewizard.json.JsonSerializerFactory;
 
 import javax.ws.rs.core.MediaType;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static java.util.Collections.emptyList;
@@ -23,11 +32,16 @@ public class JaxRsResultSerializerFactory {
     private static final byte[] COMMA = ",".getBytes();
 
     private final JsonSerializerFactory jsonSerializerFactory;
-
+    private final ResponseConfig        responseConfig;
 
     @Inject
-    public JaxRsResultSerializerFactory(JsonSerializerFactory jsonSerializerFactory) {
+    public JaxRsResultSerializerFactory(JsonSerializerFactory jsonSerializerFactory, ResponseConfig responseConfig) {
         this.jsonSerializerFactory = jsonSerializerFactory;
+        this.responseConfig = responseConfig;
+    }
+
+    public JaxRsResultSerializerFactory(JsonSerializerFactory jsonSerializerFactory) {
+        this(jsonSerializerFactory, new ResponseConfig());
     }
 
     /**
@@ -59,6 +73,50 @@ public class JaxRsResultSerializerFactory {
         return serializedItems -> serializedItems.map(object -> object.toString().getBytes());
     }
 
+    /**
+     * Creates a non streaming result serializer that writes json directly into buffers from the allocator of the
+     * response, so that the serialized result does not have to be copied from a byte array before it is sent.
+     * @param type Content-Type
+     * @param dataCls Return type of the resource method
+     * @param returnTypeIsFlux True if it is a flux, false otherwise
+     * @param <T> Type of elements emitted by the publisher
+     * @return a function that serializes the elements emitted by a publisher to a Flux of buffers, or null if the
+     *     Content-Type is not json
+     */
+    public <T> BiFunction<Flux<T>, ByteBufAllocator, Flux<ByteBuf>> createBufferSerializer(String type, Class<T> dataCls, boolean returnTypeIsFlux) {
+        if (!type.equals(MediaType.APPLICATION_JSON)) {
+            return null;
+        }
+        if (!returnTypeIsFlux) {
+            var outputStreamSerializer = jsonSerializerFactory.createOutputStreamSerializer(dataCls);
+            return (serializedItems, allocator) -> serializedItems.map(item -> serialize(outputStreamSerializer, item, allocator));
+        }
+        if (responseConfig.isIncrementalFluxSerialization()) {
+            var outputStreamSerializer = jsonSerializerFactory.createOutputStreamSerializer(dataCls);
+            int chunkSize              = responseConfig.getContentLengthThreshold();
+            return (serializedItems, allocator) -> Flux.defer(() -> {
+                var writer = new JsonArrayBufferWriter<>(outputStreamSerializer, allocator, chunkSize);
+                return serializedItems.<ByteBuf>handle(writer::write)
+                    .concatWith(Mono.fromSupplier(writer::end))
+                    .doFinally(signal -> writer.release());
+            });
+        }
+        var listSerializer = jsonSerializerFactory.createListToOutputStreamSerializer(dataCls);
+        return (serializedItems, allocator) -> serializedItems.buffer()
+            .defaultIfEmpty(emptyList())
+            .map(items -> serialize(listSerializer, items, allocator));
+    }
+
+    private static <T> ByteBuf serialize(BiConsumer<T, OutputStream> serializer, T item, ByteBufAllocator allocator) {
+        ByteBuf buffer = allocator.buffer();
+        try {
+            serializer.accept(item, new ByteBufOutputStream(buffer));
+            return buffer;
+        } catch (RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
 
     /**
      * Creates a streaming result serializer.
@@ -70,6 +128,16 @@ public class JaxRsResultSerializerFactory {
      * @return a function that serializes the elements emitted by a publisher to a Flux of byte arrays.
      */
     public <T> Function<Flux<T>, Flux<byte[]>> createStreamingSerializer(String type, Class<T> dataCls, Stream.Type streamType, boolean returnTypeIsFlux) {
+        Function<Flux<T>, Flux<byte[]>> streamingSerializer = createChunkSerializer(type, dataCls, streamType, returnTypeIsFlux);
+        if (responseConfig.getStreamingFlushBytes() > 0) {
+            var writeCoalescer = new WriteCoalescer(responseConfig.getStreamingFlushBytes(),
+                Duration.of(responseConfig.getStreamingFlushMicros(), ChronoUnit.MICROS));
+            return streamingSerializer.andThen(writeCoalescer);
+        }
+        return streamingSerializer;
+    }
+
+    private <T> Function<Flux<T>, Flux<byte[]>> createChunkSerializer(String type, Class<T> dataCls, Stream.Type streamType, boolean returnTypeIsFlux) {
         if (type.equals(MediaType.APPLICATION_JSON)) {
             var byteSerializer = jsonSerializerFactory.createByteSerializer(dataCls);
             if (streamType == Stream.Type.CONCATENATED_JSON_OBJECTS || !returnTypeIsFlux) {
@@ -77,12 +145,12 @@ public class JaxRsResultSerializerFactory {
             } else {
                 return serializedItems -> {
                     AtomicBoolean first = new AtomicBoolean(true);
-                    Flux<byte[]> items = serializedItems.concatMap(item -> {
+                    Flux<byte[]> items = serializedItems.map(item -> {
                         if (first.getAndSet(false)) {
-                            return just(byteSerializer.apply(item));
-                        } else {
-                            return just(COMMA, byteSerializer.apply(item));
+                            return byteSerializer.apply(item);
                         }
+                        // Write the separator together with the item, rather than as a write of its own
+                        return withComma(byteSerializer.apply(item));
                     });
                     return Flux.concat(
                         just(JSON_ARRAY_START),
@@ -96,4 +164,11 @@ public class JaxRsResultSerializerFactory {
         }
         return flux -> flux.map(data -> data.toString().getBytes(charset));
     }
+
+    private static byte[] withComma(byte[] item) {
+        byte[] bytes = new byte[item.length + COMMA.length];
+        System.arraycopy(COMMA, 0, bytes, 0, COMMA.length);
+        System.arraycopy(item, 0, bytes, COMMA.length, item.length);
+        return bytes;
+    }
 }
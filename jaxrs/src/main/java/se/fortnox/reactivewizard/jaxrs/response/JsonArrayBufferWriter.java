@@ -0,0 +1,66 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes the elements of a json array into buffers, emitting a buffer each time it reaches the chunk size. Holds the
+ * state of one array, so a new instance is needed for each response.
+ *
+ * @param <T> the type of the elements
+ */
+class JsonArrayBufferWriter<T> {
+    private static final byte ARRAY_START = '[';
+    private static final byte ARRAY_END   = ']';
+    private static final byte COMMA       = ',';
+
+    private final BiConsumer<T, OutputStream> serializer;
+    private final ByteBufAllocator            allocator;
+    private final int                         chunkSize;
+    private       ByteBuf                     buffer;
+    private       boolean                     first = true;
+
+    JsonArrayBufferWriter(BiConsumer<T, OutputStream> serializer, ByteBufAllocator allocator, int chunkSize) {
+        this.serializer = serializer;
+        this.allocator = allocator;
+        this.chunkSize = chunkSize;
+    }
+
+    void write(T element, SynchronousSink<ByteBuf> sink) {
+        if (buffer == null) {
+            buffer = allocator.buffer();
+        }
+        buffer.writeByte(first ? ARRAY_START : COMMA);
+        first = false;
+        serializer.accept(element, new ByteBufOutputStream(buffer));
+        if (buffer.readableBytes() >= chunkSize) {
+            ByteBuf chunk = buffer;
+            buffer = null;
+            sink.next(chunk);
+        }
+    }
+
+    ByteBuf end() {
+        ByteBuf chunk = buffer != null ? buffer : allocator.buffer(2);
+        buffer = null;
+        if (first) {
+            chunk.writeByte(ARRAY_START);
+        }
+        return chunk.writeByte(ARRAY_END);
+    }
+
+    /**
+     * Release the buffer that has not been emitted, if the array was not completed.
+     */
+    void release() {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
+}
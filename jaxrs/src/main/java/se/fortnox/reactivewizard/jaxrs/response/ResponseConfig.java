@@ -0,0 +1,69 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import se.fortnox.reactivewizard.config.Config;
+
+/**
+ * Configures how results of resources are written to responses.
+ */
+@Config("response")
+public class ResponseConfig {
+    private boolean incrementalFluxSerialization = false;
+    private int     contentLengthThreshold       = 64 * 1024;
+    private int     streamingFlushBytes          = 0;
+    private long    streamingFlushMicros         = 1000;
+
+    /**
+     * Serialize json arrays of non streaming Flux resources element by element as the elements are emitted, instead of
+     * collecting all elements to a list before serializing it.
+     *
+     * @return whether Flux results are serialized incrementally
+     */
+    public boolean isIncrementalFluxSerialization() {
+        return incrementalFluxSerialization;
+    }
+
+    public void setIncrementalFluxSerialization(boolean incrementalFluxSerialization) {
+        this.incrementalFluxSerialization = incrementalFluxSerialization;
+    }
+
+    /**
+     * The max size in bytes of an incrementally serialized result that is sent with a Content-Length header. Larger
+     * results are sent with chunked transfer encoding, in chunks of about this size.
+     *
+     * @return the threshold in bytes
+     */
+    public int getContentLengthThreshold() {
+        return contentLengthThreshold;
+    }
+
+    public void setContentLengthThreshold(int contentLengthThreshold) {
+        this.contentLengthThreshold = contentLengthThreshold;
+    }
+
+    /**
+     * Coalesce the chunks of streaming results until they reach this many bytes before they are written. Zero writes
+     * every chunk as soon as it is emitted.
+     *
+     * @return the number of bytes to coalesce before writing
+     */
+    public int getStreamingFlushBytes() {
+        return streamingFlushBytes;
+    }
+
+    public void setStreamingFlushBytes(int streamingFlushBytes) {
+        this.streamingFlushBytes = streamingFlushBytes;
+    }
+
+    /**
+     * The max time that a chunk of a streaming result is held back while coalescing, if coalescing is enabled.
+     *
+     * @return the max delay in microseconds
+     */
+    public long getStreamingFlushMicros() {
+        return streamingFlushMicros;
+    }
+
+    public void setStreamingFlushMicros(long streamingFlushMicros) {
+        this.streamingFlushMicros = streamingFlushMicros;
+    }
+}
@@ -0,0 +1,257 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerResponse;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
+import se.fortnox.reactivewizard.jaxrs.JaxRsResource;
+import se.fortnox.reactivewizard.jaxrs.ResponseCache;
+import se.fortnox.reactivewizard.jaxrs.Stream;
+import se.fortnox.reactivewizard.util.ReflectionUtil;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+
+/**
+ * Caches the serialized responses of a resource annotated with {@link ResponseCache}. A cached response is written
+ * from its bytes, without calling the resource, and a request with a matching If-None-Match header is answered with
+ * 304 Not Modified. Expired responses are removed when they are requested, or when the cache is full.
+ *
+ * <p>When requests are coalesced, a call of the resource is shared by all requests with the same key that arrive
+ * before it completes, and the serialized response is written to each of them.</p>
+ *
+ * @param <T> the type of the output of the resource
+ */
+public class ResultCache<T> {
+    private final Map<List<String>, CachedResponse>       entries  = new ConcurrentHashMap<>();
+    private final Map<List<String>, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long                                    ttlNanos;
+    private final boolean                                 coalesce;
+    private final int                                     maxEntries;
+    private final String[]                                queryParams;
+    private final String[]                                headers;
+    private final LongSupplier                            nanoTime;
+
+    public ResultCache(ResponseCache responseCache) {
+        this(responseCache, System::nanoTime);
+    }
+
+    ResultCache(ResponseCache responseCache, LongSupplier nanoTime) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(responseCache.ttlSeconds());
+        this.coalesce = responseCache.coalesce();
+        this.maxEntries = responseCache.maxEntries();
+        this.queryParams = responseCache.queryParams();
+        this.headers = responseCache.headers();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Create the cache of a resource.
+     *
+     * @param resource the resource
+     * @param <T> the type of the output of the resource
+     * @return the cache, or null if the resource is not annotated with {@link ResponseCache}
+     */
+    public static <T> ResultCache<T> create(JaxRsResource<T> resource) {
+        ResponseCache responseCache = ReflectionUtil.getAnnotation(resource.getResourceMethod(), ResponseCache.class);
+        if (responseCache == null) {
+            return null;
+        }
+        if (!HttpMethod.GET.equals(resource.getHttpMethod())) {
+            throw new IllegalArgumentException(format(
+                "Can only cache responses of GET resources. %s is a %s resource",
+                resource.getResourceMethod(), resource.getHttpMethod()));
+        }
+        if (responseCache.coalesce() && resource.getInstanceMethod().isAnnotationPresent(Stream.class)) {
+            throw new IllegalArgumentException(format(
+                "Can not coalesce requests of streaming resources. %s is annotated with @Stream",
+                resource.getResourceMethod()));
+        }
+        return new ResultCache<>(responseCache);
+    }
+
+    /**
+     * Get the cached result of a request, or call the resource and cache its result.
+     *
+     * @param request the request
+     * @param call calls the resource
+     * @return the result
+     */
+    public Mono<JaxRsResult<T>> get(JaxRsRequest request, Supplier<Mono<JaxRsResult<T>>> call) {
+        List<String>   key         = key(request);
+        String         ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        CachedResponse cached      = entries.get(key);
+        if (cached != null) {
+            if (nanoTime.getAsLong() - cached.expiresAt < 0) {
+                return Mono.just(new CachedResult<>(cached, ifNoneMatch));
+            }
+            entries.remove(key, cached);
+        }
+        if (coalesce) {
+            return inFlight.computeIfAbsent(key, inFlightKey -> callShared(inFlightKey, call))
+                .map(response -> new CachedResult<>(response, ifNoneMatch));
+        }
+        return call.get().flatMap(result -> {
+            if (result instanceof JaxRsStreamingResult || result.getResponseStatus().codeClass() != HttpStatusClass.SUCCESS) {
+                return Mono.just(result);
+            }
+            return serialize(result).map(body -> new CachedResult<>(cache(key, result, body), ifNoneMatch));
+        });
+    }
+
+    /**
+     * Call the resource once for all requests with the same key, until the call completes. Unsuccessful responses are
+     * shared as well, but they are not cached.
+     */
+    private Mono<CachedResponse> callShared(List<String> key, Supplier<Mono<JaxRsResult<T>>> call) {
+        return call.get()
+            .flatMap(result -> serialize(result).map(body -> cache(key, result, body)))
+            .doFinally(signal -> inFlight.remove(key))
+            .cache();
+    }
+
+    private List<String> key(JaxRsRequest request) {
+        List<String> key = new ArrayList<>(1 + queryParams.length + headers.length);
+        key.add(queryParams.length == 0 ? request.getUri() : request.getPath());
+        for (String queryParam : queryParams) {
+            key.add(request.getQueryParam(queryParam));
+        }
+        for (String header : headers) {
+            key.add(request.getHeader(header));
+        }
+        return key;
+    }
+
+    private Mono<byte[]> serialize(JaxRsResult<T> result) {
+        return result.serializer.apply(result.output)
+            .collectList()
+            .map(chunks -> {
+                if (chunks.size() == 1) {
+                    return chunks.getFirst();
+                }
+                int length = 0;
+                for (byte[] chunk : chunks) {
+                    length += chunk.length;
+                }
+                byte[] body = new byte[length];
+                int    pos  = 0;
+                for (byte[] chunk : chunks) {
+                    System.arraycopy(chunk, 0, body, pos, chunk.length);
+                    pos += chunk.length;
+                }
+                return body;
+            });
+    }
+
+    /**
+     * Cache a response, if it is successful. The status and headers are taken once the output is serialized, since
+     * result transformers may change them while the output is emitted.
+     */
+    private CachedResponse cache(List<String> key, JaxRsResult<T> result, byte[] body) {
+        HttpResponseStatus status     = result.getResponseStatus();
+        boolean            successful = status.codeClass() == HttpStatusClass.SUCCESS;
+        if (body.length == 0 && successful) {
+            status = HttpResponseStatus.NO_CONTENT;
+        }
+        String              etag    = etag(body);
+        Map<String, String> headers = new HashMap<>(result.headers);
+        headers.put(ETAG, etag);
+
+        long           now      = nanoTime.getAsLong();
+        CachedResponse response = new CachedResponse(status, headers, body, etag, now + ttlNanos);
+        if (!successful || ttlNanos == 0) {
+            return response;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evict(now);
+        }
+        entries.put(key, response);
+        return response;
+    }
+
+    /**
+     * Make room for a new entry, by removing the expired entries, or any entries if none have expired.
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        Iterator<List<String>> keys = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Check if an If-None-Match header matches an ETag, using the weak comparison that the header calls for.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record CachedResponse(HttpResponseStatus status, Map<String, String> headers, byte[] body, String etag, long expiresAt) {
+    }
+
+    private static class CachedResult<T> extends JaxRsResult<T> {
+        private final CachedResponse cached;
+        private final String         ifNoneMatch;
+
+        private CachedResult(CachedResponse cached, String ifNoneMatch) {
+            super(Flux.empty(), cached.status(), null, cached.headers());
+            this.cached = cached;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        @Override
+        public Publisher<Void> write(HttpServerResponse response) {
+            if (matches(ifNoneMatch, cached.etag())) {
+                response.status(HttpResponseStatus.NOT_MODIFIED);
+                response.addHeader(ETAG, cached.etag());
+                return Mono.empty();
+            }
+            response.status(responseStatus);
+            headers.forEach(response::addHeader);
+            response.addHeader(CONTENT_LENGTH, String.valueOf(cached.body().length));
+            return response.sendByteArray(Mono.just(cached.body()));
+        }
+    }
+}
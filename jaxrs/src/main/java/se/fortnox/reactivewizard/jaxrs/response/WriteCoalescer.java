@@ -0,0 +1,116 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces the serialized chunks of a streaming result, so that many small chunks are sent as one write. A coalesced
+ * chunk is emitted when it has reached the max size, or at the latest when the max delay has passed since its first
+ * chunk. Chunks are only requested from the result as the coalesced chunks are requested, so backpressure from the
+ * response is kept. A flush is only scheduled while there is a chunk waiting, so an idle stream does not wake up.
+ */
+class WriteCoalescer implements Function<Flux<byte[]>, Flux<byte[]>> {
+    private static final byte[] END = new byte[0];
+
+    private final int       maxBytes;
+    private final Duration  maxDelay;
+    private final Scheduler scheduler;
+
+    WriteCoalescer(int maxBytes, Duration maxDelay) {
+        this(maxBytes, maxDelay, Schedulers.parallel());
+    }
+
+    WriteCoalescer(int maxBytes, Duration maxDelay, Scheduler scheduler) {
+        this.maxBytes = maxBytes;
+        this.maxDelay = maxDelay;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<byte[]> apply(Flux<byte[]> chunks) {
+        return Flux.defer(() -> {
+            SizeOrFlush sizeOrFlush = new SizeOrFlush();
+            return Flux.merge(chunks.concatWith(Mono.just(END)), sizeOrFlush.flushes.asFlux())
+                .takeUntil(chunk -> chunk == END)
+                .bufferUntil(sizeOrFlush)
+                .map(WriteCoalescer::concat)
+                .filter(coalesced -> coalesced.length > 0)
+                .doFinally(signal -> sizeOrFlush.cancelFlush());
+        });
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        if (chunks.size() == 1) {
+            return chunks.getFirst();
+        }
+        int size = 0;
+        for (byte[] chunk : chunks) {
+            size += chunk.length;
+        }
+        byte[] coalesced = new byte[size];
+        int    pos       = 0;
+        for (byte[] chunk : chunks) {
+            System.arraycopy(chunk, 0, coalesced, pos, chunk.length);
+            pos += chunk.length;
+        }
+        return coalesced;
+    }
+
+    /**
+     * Ends a coalesced chunk when it reaches the max size, or when the flush that was scheduled for it arrives. Each
+     * scheduled flush is a unique empty chunk, so that a flush which arrives after its chunk was ended by size is
+     * ignored.
+     */
+    private class SizeOrFlush implements Predicate<byte[]> {
+        private final Sinks.Many<byte[]> flushes = Sinks.many().unicast().onBackpressureBuffer();
+        private       int                size;
+        private       byte[]             pendingFlush;
+        private       Disposable         scheduledFlush;
+
+        @Override
+        public boolean test(byte[] chunk) {
+            if (chunk == END || chunk == pendingFlush) {
+                return flush();
+            }
+            if (chunk.length == 0) {
+                return false;
+            }
+            if (size == 0) {
+                scheduleFlush();
+            }
+            size += chunk.length;
+            return size >= maxBytes && flush();
+        }
+
+        private boolean flush() {
+            size = 0;
+            cancelFlush();
+            return true;
+        }
+
+        private synchronized void scheduleFlush() {
+            byte[] flush = new byte[0];
+            pendingFlush = flush;
+            scheduledFlush = scheduler.schedule(() -> flushes.emitNext(flush, Sinks.EmitFailureHandler.busyLooping(maxDelay)),
+                maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void cancelFlush() {
+            pendingFlush = null;
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+                scheduledFlush = null;
+            }
+        }
+    }
+}
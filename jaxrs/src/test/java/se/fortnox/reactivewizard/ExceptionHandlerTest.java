@@ -1,12 +1,16 @@
 package se.fortnox.reactivewizard;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.handler.codec.http.HttpMethod;
 import org.apache.logging.log4j.Level;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
+import se.fortnox.reactivewizard.jaxrs.RequestLogger;
 import se.fortnox.reactivewizard.jaxrs.WebException;
 import se.fortnox.reactivewizard.mocks.MockHttpServerRequest;
 import se.fortnox.reactivewizard.mocks.MockHttpServerResponse;
@@ -28,6 +32,10 @@ import static org.apache.logging.log4j.Level.DEBUG;
 import static org.apache.logging.log4j.Level.ERROR;
 import static org.apache.logging.log4j.Level.WARN;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(LoggingVerifierExtension.class)
 class ExceptionHandlerTest {
@@ -274,6 +282,21 @@ class ExceptionHandlerTest {
         assertThat(response.responseHeaders().get("Content-Length")).isEqualTo("0");
     }
 
+    @Test
+    void shouldSerializeExceptionOnceForLogAndResponse() throws JsonProcessingException {
+        ObjectMapper           mapper       = spy(new ObjectMapper());
+        MockHttpServerResponse response     = new MockHttpServerResponse();
+        WebException           webException = new WebException(BAD_REQUEST);
+
+        Flux.from(new ExceptionHandler(mapper, new RequestLogger()).handleException(new MockHttpServerRequest("/path"), response, webException))
+            .blockLast();
+
+        verify(mapper, times(1)).writeValueAsString(any());
+        assertThat(response.getOutp()).contains(webException.getId());
+        loggingVerifier.assertThatLogs()
+            .anySatisfy(event -> assertThat(event.getMessage().getFormattedMessage()).contains(webException.getId()));
+    }
+
     private void assertLog(HttpServerRequest request, Exception exception, Level expectedLevel, String expectedLog) {
         this.assertLog(request, exception, expectedLevel, expectedLog, new ExceptionHandler(), null);
     }
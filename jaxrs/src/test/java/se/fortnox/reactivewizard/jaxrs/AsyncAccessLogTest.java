@@ -0,0 +1,100 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncAccessLogTest {
+
+    private final Logger          log    = mock(Logger.class);
+    private final AccessLogConfig config = new AccessLogConfig();
+    private final long[]          now    = {0};
+
+    @BeforeEach
+    public void beforeEach() {
+        when(log.isInfoEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void shouldWriteRecordedEntriesWithFixedLayout() {
+        AsyncAccessLog accessLog = new AsyncAccessLog(config, () -> now[0]);
+        assertThat(accessLog.drain()).isFalse();
+
+        accessLog.record(log, 200, HttpMethod.GET, "/path?query=1", 12, -1, 345);
+        accessLog.record(log, 201, HttpMethod.POST, "/path", 3, 20, -1);
+        assertThat(accessLog.drain()).isTrue();
+
+        verify(log).info("200: GET /path?query=1 12 - 345");
+        verify(log).info("201: POST /path 3 20 -");
+        assertThat(accessLog.drain()).isFalse();
+    }
+
+    @Test
+    void shouldDropEntriesWhileBufferIsFull() {
+        config.setBufferSize(2);
+        AsyncAccessLog accessLog = new AsyncAccessLog(config, () -> now[0]);
+
+        for (int i = 0; i < 3; i++) {
+            accessLog.record(log, 200, HttpMethod.GET, "/" + i, 1, -1, -1);
+        }
+        accessLog.drain();
+        verify(log, times(2)).info(anyString());
+
+        accessLog.record(log, 200, HttpMethod.GET, "/3", 1, -1, -1);
+        accessLog.drain();
+        verify(log).info("200: GET /3 1 - -");
+    }
+
+    @Test
+    void shouldLimitEntriesWrittenPerSecond() {
+        config.setMaxPerSecond(1);
+        AsyncAccessLog accessLog = new AsyncAccessLog(config, () -> now[0]);
+
+        accessLog.record(log, 200, HttpMethod.GET, "/first", 1, -1, -1);
+        accessLog.record(log, 200, HttpMethod.GET, "/second", 1, -1, -1);
+        accessLog.drain();
+        verify(log, times(1)).info(anyString());
+
+        now[0] += 1_000_000_000L;
+        accessLog.record(log, 200, HttpMethod.GET, "/third", 1, -1, -1);
+        accessLog.drain();
+        verify(log).info("200: GET /third 1 - -");
+    }
+
+    @Test
+    void shouldSampleSuccessfulRequestsButNotServerErrors() {
+        config.setSampleRate(0);
+        AsyncAccessLog accessLog = new AsyncAccessLog(config, () -> now[0]);
+
+        accessLog.record(log, 200, HttpMethod.GET, "/ok", 1, -1, -1);
+        accessLog.record(log, 500, HttpMethod.GET, "/error", 1, -1, -1);
+        accessLog.drain();
+
+        verify(log, times(1)).info(anyString());
+        verify(log).info("500: GET /error 1 - -");
+    }
+
+    @Test
+    void shouldWriteStartedAccessLogsFromOneSharedThread() {
+        AsyncAccessLog first  = AsyncAccessLog.start(config);
+        AsyncAccessLog second = AsyncAccessLog.start(config);
+
+        first.record(log, 200, HttpMethod.GET, "/first", 1, -1, -1);
+        verify(log, timeout(5000)).info("200: GET /first 1 - -");
+        second.record(log, 200, HttpMethod.GET, "/second", 1, -1, -1);
+        verify(log, timeout(5000)).info("200: GET /second 1 - -");
+
+        assertThat(Thread.getAllStackTraces().keySet())
+            .filteredOn(thread -> thread.getName().equals("access-log"))
+            .hasSize(1);
+    }
+}
@@ -0,0 +1,87 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static se.fortnox.reactivewizard.utils.JaxRsTestUtil.body;
+import static se.fortnox.reactivewizard.utils.JaxRsTestUtil.get;
+
+class BlockingExecutorTest {
+
+    @Test
+    void shouldCallBlockingResourceOnVirtualThread() {
+        assertThat(body(get(new BlockingResource(), "/blocking"))).startsWith("\"true rw-blocking-");
+        assertThat(body(get(new BlockingResource(), "/blocking/nonblocking"))).startsWith("\"false ");
+    }
+
+    @Test
+    void shouldCallResourcesOfBlockingClassOnVirtualThread() {
+        assertThat(body(get(new BlockingClassResource(), "/blockingclass"))).startsWith("\"true rw-blocking-");
+    }
+
+    @Test
+    void shouldQueueCallsOverLimit() {
+        BlockingConfig config = new BlockingConfig();
+        config.setMaxConcurrent(1);
+        BlockingExecutor executor = new BlockingExecutor(config);
+        CountDownLatch   blocked  = new CountDownLatch(1);
+
+        Mono<String> first  = executor.call(() -> Flux.just(awaitRelease(blocked))).single().cache();
+        Mono<String> second = executor.call(() -> Flux.just("second")).single().cache();
+        first.subscribe();
+        second.subscribe();
+        assertThat(executor.getActive()).isEqualTo(1);
+        assertThat(executor.getQueued()).isEqualTo(1);
+
+        blocked.countDown();
+        assertThat(first.block()).isEqualTo("first");
+        assertThat(second.block()).isEqualTo("second");
+        // The place of a call is released once its output has terminated, just after the output reaches the subscriber
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executor.getActive() == 0);
+    }
+
+    private static String awaitRelease(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return "first";
+    }
+
+    private static Mono<String> currentThread() {
+        return Mono.just(Thread.currentThread().isVirtual() + " " + Thread.currentThread().getName());
+    }
+
+    @Path("blocking")
+    public static class BlockingResource {
+        @GET
+        @Blocking
+        public Mono<String> blocking() {
+            return currentThread();
+        }
+
+        @GET
+        @Path("nonblocking")
+        public Mono<String> nonBlocking() {
+            return currentThread();
+        }
+    }
+
+    @Path("blockingclass")
+    @Blocking
+    public static class BlockingClassResource {
+        @GET
+        public Mono<String> blocking() {
+            return currentThread();
+        }
+    }
+}
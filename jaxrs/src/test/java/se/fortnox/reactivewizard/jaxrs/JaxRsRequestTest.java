@@ -1,5 +1,6 @@
 package se.fortnox.reactivewizard.jaxrs;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpMethod;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -75,6 +76,61 @@ class JaxRsRequestTest {
         }
     }
 
+    @Test
+    void shouldKeepMultiChunkBodyInPooledBuffer() {
+        byte[] byteArray = "ö".getBytes(Charset.defaultCharset());
+        ByteBufFlux content = ByteBufFlux.fromInbound(Flux.just(new byte[]{byteArray[0]}, new byte[]{byteArray[1]}));
+        HttpServerRequest serverReq = new MockHttpServerRequest("/", HttpMethod.POST, content);
+        JaxRsRequest req = new JaxRsRequest(serverReq, new ByteBufCollector(1024, true)).loadBody().block();
+
+        ByteBuf bodyBuf = req.getBodyBuf();
+        assertThat(bodyBuf.toString(Charset.defaultCharset())).isEqualTo("ö");
+        assertThat(new String(req.getBody())).isEqualTo("ö");
+
+        req.releaseBody();
+        assertThat(bodyBuf.refCnt()).isZero();
+    }
+
+    @Test
+    void shouldNotKeepBodyInPooledBufferByDefault() {
+        HttpServerRequest serverReq = new MockHttpServerRequest("/", HttpMethod.POST, "test");
+        JaxRsRequest req = new JaxRsRequest(serverReq, new ByteBufCollector()).loadBody().block();
+        assertThat(req.getBodyBuf()).isNull();
+        assertThat(new String(req.getBody())).isEqualTo("test");
+    }
+
+    @Test
+    void shouldFailWhenCollectingTooLargeBodyInPooledBuffer() {
+        HttpServerRequest serverReq = new MockHttpServerRequest("/", HttpMethod.POST, "too large");
+        JaxRsRequest req = new JaxRsRequest(serverReq, new ByteBufCollector(5, true));
+        try {
+            req.loadBody().block();
+            Assertions.fail("Should throw exception");
+        } catch (WebException e) {
+            assertThat(e.getError()).isEqualTo("too.large.input");
+        }
+    }
+
+    @Test
+    void shouldReadFormParamsFromPooledBody() {
+        HttpServerRequest serverReq = new MockHttpServerRequest("/", HttpMethod.POST, "first=1&second=%C3%B6");
+        JaxRsRequest req = new JaxRsRequest(serverReq, new ByteBufCollector(1024, true)).loadBody().block();
+
+        assertThat(req.getFormParam("first")).isEqualTo("1");
+        assertThat(req.getFormParam("second")).isEqualTo("ö");
+        assertThat(req.getFormParam("third", "default")).isEqualTo("default");
+        req.releaseBody();
+    }
+
+    @Test
+    void shouldKeepQueryParamsWhenLoadingBody() {
+        HttpServerRequest serverReq = new MockHttpServerRequest("/?query=1", HttpMethod.POST, "test");
+        JaxRsRequest req = new JaxRsRequest(serverReq, new ByteBufCollector());
+        assertThat(req.getQueryParam("query")).isEqualTo("1");
+
+        assertThat(req.loadBody().block().getQueryParam("query")).isEqualTo("1");
+    }
+
     @Test
     void testParams() {
         MockHttpServerRequest serverReq = new MockHttpServerRequest("/");
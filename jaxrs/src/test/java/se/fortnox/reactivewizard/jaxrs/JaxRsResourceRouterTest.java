@@ -0,0 +1,136 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Mono;
+import se.fortnox.reactivewizard.mocks.MockHttpServerRequest;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JaxRsResourceRouterTest {
+
+    private final List<JaxRsResource> resources = new JaxRsResourceFactory().createResources(new Object[]{new RoutingResource()});
+    private final JaxRsResourceRouter router    = new JaxRsResourceRouter(resources);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/",
+        "/routing",
+        "/routing/",
+        "/routing/literal",
+        "/routing/literal/",
+        "/routing/literal%20%20",
+        "/routing/literal%09/",
+        "/routing/literalAndMore",
+        "/routing/literal/more",
+        "/routing/123",
+        "/routing/abc",
+        "/routing/abc%20/",
+        "/routing/~tilde",
+        "/routing/file.json",
+        "/routing/fileXjson",
+        "/routing/nested/a/b/c",
+        "/routing/nested/a/deep",
+        "/routing/nested/deep",
+        "/routing//literal",
+        "/unknown",
+        "routing/literal"
+    })
+    void shouldFindSameResourceAsLinearScan(String path) {
+        for (HttpMethod httpMethod : List.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT)) {
+            JaxRsResource<?> expected = linearScan(new JaxRsRequest(new MockHttpServerRequest(path, httpMethod)));
+            JaxRsResource<?> actual   = router.findResource(new JaxRsRequest(new MockHttpServerRequest(path, httpMethod)));
+            assertThat(actual).isSameAs(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/routing/123", "/routing/abc", "/routing/abc%20/", "/routing/nested/a/deep", "/routing/nested/a/b"})
+    void shouldKeepPathParamsOfFoundResource(String path) {
+        JaxRsRequest expectedRequest = new JaxRsRequest(new MockHttpServerRequest(path));
+        JaxRsRequest actualRequest   = new JaxRsRequest(new MockHttpServerRequest(path));
+        linearScan(expectedRequest);
+        router.findResource(actualRequest);
+
+        assertThat(actualRequest.getPathParam("id")).isEqualTo(expectedRequest.getPathParam("id"));
+        assertThat(actualRequest.getPathParam("rest")).isEqualTo(expectedRequest.getPathParam("rest"));
+    }
+
+    private JaxRsResource<?> linearScan(JaxRsRequest request) {
+        for (JaxRsResource<?> resource : resources) {
+            if (resource.canHandleRequest(request)) {
+                return resource;
+            }
+        }
+        return null;
+    }
+
+    @Path("")
+    public static class RoutingResource {
+        @GET
+        public Mono<String> root() {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing")
+        public Mono<String> base() {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/literal")
+        public Mono<String> literal() {
+            return Mono.empty();
+        }
+
+        @POST
+        @Path("routing/literal")
+        public Mono<String> postLiteral() {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/{id}")
+        public Mono<String> variable(@PathParam("id") String id) {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/{id:[0-9]+}")
+        public Mono<String> numeric(@PathParam("id") String id) {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/~tilde")
+        public Mono<String> sortedAfterVariable() {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/file.json")
+        public Mono<String> regexCharacters() {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/nested/{rest:.*}")
+        public Mono<String> rest(@PathParam("rest") String rest) {
+            return Mono.empty();
+        }
+
+        @GET
+        @Path("routing/nested/{id}/deep")
+        public Mono<String> nestedVariable(@PathParam("id") String id) {
+            return Mono.empty();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package se.fortnox.reactivewizard.jaxrs;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import com.google.inject.Module;
 import com.google.inject.*;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 import org.assertj.core.api.Assertions;
@@ -12,9 +14,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
 import rx.Observable;
+import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.PrioritizedPublisher;
 import se.fortnox.reactivewizard.jaxrs.params.*;
 import se.fortnox.reactivewizard.jaxrs.params.annotated.AnnotatedParamResolverFactories;
+import se.fortnox.reactivewizard.jaxrs.params.annotated.BeanParamResolver;
 import se.fortnox.reactivewizard.jaxrs.params.deserializing.Deserializer;
 import se.fortnox.reactivewizard.jaxrs.params.deserializing.DeserializerFactory;
 import se.fortnox.reactivewizard.jaxrs.response.JaxRsResult;
@@ -32,6 +38,7 @@ import java.lang.reflect.Proxy;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
@@ -142,6 +149,57 @@ class JaxRsResourceTest {
         assertThat(response.getOutp()).isEqualTo("\"foo: 5678\"");
     }
 
+    @Test
+    void shouldResolveCustomTypeWithSynchronousParamResolver() {
+        Foo foo = mock(Foo.class);
+        when(foo.getStr()).thenReturn("sync");
+        SynchronousParamResolver<Foo> fooResolver = new SynchronousParamResolver<Foo>() {
+            @Override
+            public Foo resolveValue(JaxRsRequest request) {
+                return foo;
+            }
+        };
+
+        assertThat(body(callWithParamResolvers(new FooTest(), new ParamResolvers(fooResolver), "/test/accepts/res")))
+            .isEqualTo("\"foo: sync\"");
+    }
+
+    @Test
+    void shouldKeepArgumentOrderWhenMixingSynchronousAndAsynchronousParams() {
+        Foo foo = mock(Foo.class);
+        when(foo.getStr()).thenReturn("async");
+        ParamResolver<Foo> fooResolver = new ParamResolver<Foo>() {
+            @Override
+            public Mono<Foo> resolve(JaxRsRequest request) {
+                return Mono.delay(Duration.ofMillis(10)).map(tick -> foo);
+            }
+        };
+
+        String path = "/test/accepts/mixed?first=a&last=b";
+        assertThat(body(callWithParamResolvers(new MixedParamsResource(), new ParamResolvers(fooResolver), path)))
+            .isEqualTo("\"a async b\"");
+    }
+
+    private MockHttpServerResponse callWithParamResolvers(Object resource, ParamResolvers paramResolvers, String path) {
+        JaxRsResources jaxRsResources = new JaxRsResources(
+            new Object[]{resource},
+            new JaxRsResourceFactory(
+                new ParamResolverFactories(
+                    new DeserializerFactory(),
+                    paramResolvers,
+                    new AnnotatedParamResolverFactories(),
+                    new WrapSupportingParamTypeResolver()),
+                new JaxRsResultFactoryFactory(),
+                new RequestLogger()),
+            false);
+        JaxRsRequest                   jaxRsRequest = new JaxRsRequest(new MockHttpServerRequest(path), new ByteBufCollector());
+        Mono<? extends JaxRsResult<?>> result       = jaxRsResources.findResource(jaxRsRequest).call(jaxRsRequest);
+
+        MockHttpServerResponse response = new MockHttpServerResponse();
+        Flux.from(result.block().write(response)).count().block();
+        return response;
+    }
+
     @Test
     void shouldSupportDefaultValue() {
         assertThat(body(get(service, "/test/defaultQuery"))).isEqualTo("\"Default: 5\"");
@@ -717,6 +775,40 @@ class JaxRsResourceTest {
         assertThat(body(post(service, "/test/generic-param", "[{\"name\":\"test\"}]"))).isEqualTo("\"ParamEntity\"");
     }
 
+    @Test
+    void shouldStreamJsonArrayBodyIntoFluxParam() {
+        StreamingBodyResource resource = new StreamingBodyResource();
+        ByteBufFlux body = ByteBufFlux.fromString(Flux.just("[{\"name\":\"fi", "rst\"},null,", "{\"name\":\"second\"}]"));
+
+        MockHttpServerResponse response = processRequest(resource, new MockHttpServerRequest("/streaming", HttpMethod.POST, body));
+
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.CREATED);
+        assertThat(body(response)).isEqualTo("\"first,second\"");
+    }
+
+    @Test
+    void shouldReturnBadRequestForInvalidStreamedJsonBody() {
+        StreamingBodyResource resource = new StreamingBodyResource();
+
+        assertThat(post(resource, "/streaming", "[{\"name\":\"first\"}").status()).isEqualTo(BAD_REQUEST);
+        assertThat(post(resource, "/streaming", "{\"name\":\"first\"}").status()).isEqualTo(BAD_REQUEST);
+    }
+
+    @Test
+    void shouldReturnPriorityOfResourceWithResult() {
+        JaxRsRequestHandler handler = new JaxRsRequestHandler(new Object[]{new PrioritizedResource(), new SpecialResource()},
+            new JaxRsResourceFactory(),
+            new ExceptionHandler(),
+            false);
+
+        assertThat(PrioritizedPublisher.priorityOf(handler.apply(new MockHttpServerRequest("/prioritized"), new MockHttpServerResponse())))
+            .isEqualTo(RequestPriority.Level.LOW);
+        assertThat(PrioritizedPublisher.priorityOf(handler.apply(new MockHttpServerRequest("/prioritized/critical"), new MockHttpServerResponse())))
+            .isEqualTo(RequestPriority.Level.CRITICAL);
+        assertThat(PrioritizedPublisher.priorityOf(handler.apply(new MockHttpServerRequest("/special/strings"), new MockHttpServerResponse())))
+            .isEqualTo(RequestPriority.Level.NORMAL);
+    }
+
     @Test
     void shouldSupportGenericParamsWhenProxied() {
         TestresourceInterface proxy = (TestresourceInterface) Proxy.newProxyInstance(
@@ -873,6 +965,37 @@ class JaxRsResourceTest {
         assertThat(get(service, "/test/acceptsBeanParamInherited?name=foo&age=3&items=1,2&inherited=YES").getOutp()).isEqualTo("\"foo - 3 2 - YES\"");
     }
 
+    @Test
+    void shouldResolveBeanParamsSynchronously() {
+        BeanParamResolver.Factory factory = new BeanParamResolver.Factory(new AnnotatedParamResolverFactories());
+
+        assertThat(factory.create(new TypeReference<ParamEntity>() {}, null, null))
+            .isInstanceOf(SynchronousParamResolver.class);
+        assertThat(factory.create(new TypeReference<ParamEntityRecord>() {}, null, null))
+            .isInstanceOf(SynchronousParamResolver.class);
+    }
+
+    @Test
+    void shouldAcceptBeanParamRecordWithManyFields() {
+        BeanParamResolver.Factory factory = new BeanParamResolver.Factory(new AnnotatedParamResolverFactories());
+        ParamResolver<ManyFieldsParamRecord> resolver = factory.create(new TypeReference<ManyFieldsParamRecord>() {}, null, null);
+        JaxRsRequest request = new JaxRsRequest(new MockHttpServerRequest("/?a=1&b=2&c=3&d=4&e=5&f=6"));
+
+        assertThat(resolver.resolve(request).block())
+            .isEqualTo(new ManyFieldsParamRecord("1", "2", "3", "4", "5", 6, 7));
+    }
+
+    record ManyFieldsParamRecord(
+        @QueryParam("a") String a,
+        @QueryParam("b") String b,
+        @QueryParam("c") String c,
+        @QueryParam("d") String d,
+        @QueryParam("e") String e,
+        @QueryParam("f") int f,
+        @QueryParam("g") @DefaultValue("7") int g
+    ) {
+    }
+
     @Test
     void shouldGiveErrorWhenBodyIsNullString() {
         assertThat(post(service, "/test/applicationJson", "null").status()).isEqualTo(BAD_REQUEST);
@@ -1778,6 +1901,14 @@ class JaxRsResourceTest {
         }
     }
 
+    @Path("/test/accepts/mixed")
+    class MixedParamsResource {
+        @GET
+        public Mono<String> test(@QueryParam("first") String first, Foo foo, @QueryParam("last") String last) {
+            return just(first + " " + foo.getStr() + " " + last);
+        }
+    }
+
     @Path("special")
     class SpecialResource {
 
@@ -1794,6 +1925,30 @@ class JaxRsResourceTest {
         }
     }
 
+    @Path("streaming")
+    class StreamingBodyResource {
+        @POST
+        public Mono<String> acceptsStream(Flux<ParamEntity> entities) {
+            return entities.map(ParamEntity::getName).collect(Collectors.joining(","));
+        }
+    }
+
+    @Path("prioritized")
+    @RequestPriority(RequestPriority.Level.LOW)
+    class PrioritizedResource {
+        @GET
+        public Mono<String> low() {
+            return just("");
+        }
+
+        @GET
+        @Path("critical")
+        @RequestPriority(RequestPriority.Level.CRITICAL)
+        public Mono<String> critical() {
+            return just("");
+        }
+    }
+
     @Path("default")
     class DefaultPathParamResource {
         @GET
@@ -1,7 +1,13 @@
 package se.fortnox.reactivewizard.jaxrs;
 
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import se.fortnox.reactivewizard.mocks.MockHttpServerRequest;
+import se.fortnox.reactivewizard.mocks.MockHttpServerResponse;
 
 import java.util.Map;
 import java.util.Set;
@@ -10,6 +16,12 @@ import static java.util.Map.entry;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class RequestLoggerTest {
 
@@ -126,4 +138,21 @@ class RequestLoggerTest {
                 entry("header5", "value5")
             );
     }
+
+    @Test
+    void shouldWriteAccessLogFromBackgroundThreadWhenAsynchronous() {
+        AccessLogConfig config = new AccessLogConfig();
+        config.setAsynchronous(true);
+        RequestLogger          asyncRequestLogger = new RequestLogger(config);
+        Logger                 log                = mock(Logger.class);
+        MockHttpServerResponse response           = new MockHttpServerResponse();
+        response.status(HttpResponseStatus.CREATED);
+        response.addHeader(HttpHeaderNames.CONTENT_LENGTH, "5");
+        when(log.isInfoEnabled()).thenReturn(true);
+
+        asyncRequestLogger.logRequestResponse(new MockHttpServerRequest("/path", HttpMethod.POST), response, System.currentTimeMillis(), log);
+
+        verify(log, timeout(5000)).info(matches("201: POST /path \\d+ - 5"));
+        verify(log, never()).isDebugEnabled();
+    }
 }
@@ -0,0 +1,119 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ResourceBulkheadTest {
+
+    private final ResourceBulkhead bulkhead = new ResourceBulkhead("test", 1, 1);
+    private final AtomicInteger    calls    = new AtomicInteger();
+
+    @Test
+    void shouldQueueCallsOverLimitAndRejectCallsOverQueue() {
+        Sinks.Many<String> firstOutput  = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<String> secondOutput = Sinks.many().unicast().onBackpressureBuffer();
+        Disposable         first        = bulkhead.call(() -> count(firstOutput.asFlux())).subscribe();
+        List<String>       secondValues = new ArrayList<>();
+        Disposable         second       = bulkhead.call(() -> count(secondOutput.asFlux())).subscribe(secondValues::add);
+        assertThat(calls).hasValue(1);
+
+        StepVerifier.create(bulkhead.call(() -> count(Flux.just("third"))))
+            .verifyErrorSatisfies(error -> assertThat(WebException.hasStatus(error, HttpResponseStatus.SERVICE_UNAVAILABLE)).isTrue());
+        assertThat(Metrics.registry().counter("IN_bulkhead:test_rejected").getCount()).isPositive();
+
+        firstOutput.tryEmitComplete();
+        assertThat(first.isDisposed()).isTrue();
+        secondOutput.tryEmitNext("second");
+        secondOutput.tryEmitComplete();
+        assertThat(second.isDisposed()).isTrue();
+        assertThat(secondValues).containsExactly("second");
+
+        assertThat(calls).hasValue(2);
+        assertThat(bulkhead.getActive()).isZero();
+    }
+
+    @Test
+    void shouldNotCallResourceWhileWaiting() {
+        Sinks.Empty<String> firstOutput = Sinks.empty();
+        bulkhead.call(() -> count(firstOutput.asMono().flux())).subscribe();
+        Disposable waiting = bulkhead.call(() -> count(Flux.just("second"))).subscribe();
+
+        assertThat(calls).hasValue(1);
+        assertThat(bulkhead.getQueued()).isEqualTo(1);
+
+        waiting.dispose();
+        assertThat(bulkhead.getQueued()).isZero();
+
+        firstOutput.tryEmitEmpty();
+        assertThat(calls).hasValue(1);
+        assertThat(bulkhead.getActive()).isZero();
+    }
+
+    @Test
+    void shouldReleasePlaceOnceWhenCancelledAsItIsHandedOver() {
+        Sinks.Empty<String>         firstOutput = Sinks.empty();
+        AtomicReference<Disposable> waiting     = new AtomicReference<>();
+        bulkhead.call(() -> count(firstOutput.asMono().flux())).subscribe();
+        waiting.set(bulkhead.call(() -> {
+            waiting.get().dispose();
+            return count(Flux.just("second"));
+        }).subscribe());
+
+        firstOutput.tryEmitEmpty();
+        assertThat(calls).hasValue(2);
+        assertThat(bulkhead.getActive()).isZero();
+        assertThat(bulkhead.getQueued()).isZero();
+
+        StepVerifier.create(bulkhead.call(() -> count(Flux.just("third"))))
+            .expectNext("third")
+            .verifyComplete();
+        assertThat(bulkhead.getActive()).isZero();
+    }
+
+    @Test
+    void shouldShareBulkheadsByNameAndRequireSameLimits() throws NoSuchMethodException {
+        Bulkhead reports      = BulkheadResource.class.getMethod("report").getAnnotation(Bulkhead.class);
+        Bulkhead otherReports = BulkheadResource.class.getMethod("otherReport").getAnnotation(Bulkhead.class);
+
+        assertThat(ResourceBulkhead.get(reports)).isSameAs(ResourceBulkhead.get(reports));
+        assertThat(ResourceBulkhead.get(null)).isNull();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> ResourceBulkhead.get(otherReports));
+    }
+
+    private <T> Flux<T> count(Flux<T> output) {
+        calls.incrementAndGet();
+        return output;
+    }
+
+    @Path("bulkhead")
+    public static class BulkheadResource {
+        @GET
+        @Bulkhead(value = "reports", maxConcurrent = 2)
+        public Flux<String> report() {
+            return Flux.empty();
+        }
+
+        @GET
+        @Path("other")
+        @Bulkhead(value = "reports", maxConcurrent = 3)
+        public Flux<String> otherReport() {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package se.fortnox.reactivewizard.jaxrs;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UrlEncodedParamsTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/path",
+        "/path?",
+        "/path?a=1",
+        "/path?a=1&b=2&a=3",
+        "/path?a=1;b=2",
+        "/path?a&b=&=c&d==e",
+        "/path?a=1#b=2",
+        "/path#a=1?b=2",
+        "/path?a%20b=c+d&e=%C3%B6",
+        "/path?&&a=1&&",
+        "?a=1"
+    })
+    void shouldFindSameParamsAsQueryStringDecoder(String uri) {
+        UrlEncodedParams params = UrlEncodedParams.fromUri(uri);
+        Map<String, List<String>> expected = new QueryStringDecoder(uri).parameters();
+
+        expected.forEach((name, values) -> assertThat(params.get(name)).isEqualTo(values.getFirst()));
+        for (String name : List.of("a", "b", "c", "d", "e", "a b", "")) {
+            if (!expected.containsKey(name)) {
+                assertThat(params.get(name)).isNull();
+            }
+        }
+    }
+
+    @Test
+    void shouldIndexFormBodyFromStart() {
+        UrlEncodedParams params = new UrlEncodedParams("first=1&second=two+words", 0);
+
+        assertThat(params.get("first")).isEqualTo("1");
+        assertThat(params.get("second")).isEqualTo("two words");
+        assertThat(params.get("third")).isNull();
+    }
+
+    @Test
+    void shouldOnlyDecodeValuesWhenRequested() {
+        UrlEncodedParams params = new UrlEncodedParams("valid=1&invalid=%A", 0);
+
+        assertThat(params.get("valid")).isEqualTo("1");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> params.get("invalid"));
+    }
+
+    @Test
+    void shouldFailOnInvalidName() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> UrlEncodedParams.fromUri("/path?%A=1"));
+    }
+}
@@ -1,15 +1,21 @@
 package se.fortnox.reactivewizard.jaxrs.params.deserializing;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.multibindings.Multibinder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import se.fortnox.reactivewizard.json.JsonDeserializerFactory;
 
+import javax.ws.rs.core.MediaType;
 import java.text.DateFormat;
+import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class DeserializerFactoryTest {
@@ -33,6 +39,16 @@ class DeserializerFactoryTest {
         assertThat(deserializerFactory.getClassDeserializer(Boolean.class)).isSameAs(BOOLEAN_DESERIALIZER);
     }
 
+    @Test
+    void shouldDeserializeJsonBodyFromBuffer() throws DeserializerException {
+        BodyDeserializer<Map<String, String>> bodyDeserializer = deserializerFactory.getBodyDeserializer(
+            new TypeReference<Map<String, String>>() { }, new String[]{MediaType.APPLICATION_JSON});
+        ByteBuf body = Unpooled.wrappedBuffer(Unpooled.copiedBuffer("{\"key\":", UTF_8), Unpooled.copiedBuffer("\"value\"}", UTF_8));
+
+        assertThat(bodyDeserializer.deserialize(body)).containsEntry("key", "value");
+        assertThat(body.readerIndex()).isZero();
+    }
+
     private static class TestModule extends AbstractModule {
         @Override
         protected void configure() {
@@ -1,10 +1,14 @@
 package se.fortnox.reactivewizard.jaxrs.response;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
+import se.fortnox.reactivewizard.json.JsonSerializerFactory;
 import se.fortnox.reactivewizard.mocks.MockHttpServerResponse;
 
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -43,4 +47,82 @@ class JaxRsResultTest {
 
         assertThat(written.get()).isFalse();
     }
+
+    @Test
+    void shouldWriteBuffersFromBufferSerializer() {
+        JaxRsResultSerializerFactory serializerFactory = new JaxRsResultSerializerFactory(new JsonSerializerFactory());
+        JaxRsResult<String> jaxRsResult = new JaxRsResult<>(Flux.just("a", "b"),
+            HttpResponseStatus.OK,
+            serializerFactory.createSerializer(MediaType.APPLICATION_JSON, String.class, true),
+            serializerFactory.createBufferSerializer(MediaType.APPLICATION_JSON, String.class, true),
+            Collections.emptyMap());
+
+        MockHttpServerResponse response = new MockHttpServerResponse();
+        Flux.from(jaxRsResult.write(response)).ignoreElements().block();
+
+        assertThat(response.getOutp()).isEqualTo("[\"a\",\"b\"]");
+        assertThat(response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH)).isEqualTo("9");
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.OK);
+    }
+
+    @Test
+    void shouldNotCreateBufferSerializerForOtherThanJson() {
+        JaxRsResultSerializerFactory serializerFactory = new JaxRsResultSerializerFactory(new JsonSerializerFactory());
+
+        assertThat(serializerFactory.createBufferSerializer(MediaType.TEXT_PLAIN, String.class, false)).isNull();
+    }
+
+    @Test
+    void shouldSetContentLengthForIncrementallySerializedResultBelowThreshold() {
+        MockHttpServerResponse response = writeIncrementally(Flux.just("a", "b"), 100);
+
+        assertThat(response.getOutp()).isEqualTo("[\"a\",\"b\"]");
+        assertThat(response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH)).isEqualTo("9");
+    }
+
+    @Test
+    void shouldSendIncrementallySerializedResultAboveThresholdInChunks() {
+        MockHttpServerResponse response = writeIncrementally(Flux.just("a", "b", "c"), 4);
+
+        assertThat(response.getOutp()).isEqualTo("[\"a\",\"b\",\"c\"]");
+        assertThat(response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(response.status()).isEqualTo(HttpResponseStatus.OK);
+    }
+
+    @Test
+    void shouldSerializeEmptyResultIncrementallyAsEmptyArray() {
+        MockHttpServerResponse response = writeIncrementally(Flux.empty(), 4);
+
+        assertThat(response.getOutp()).isEqualTo("[]");
+        assertThat(response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH)).isEqualTo("2");
+    }
+
+    @Test
+    void shouldNotDiscardFirstChunkOfIncrementallySerializedResult() {
+        MockHttpServerResponse response = new MockHttpServerResponse();
+        Flux.from(incrementalResult(Flux.just("a", "b", "c"), 4).write(response))
+            .doOnDiscard(ByteBuf.class, ByteBuf::release)
+            .ignoreElements()
+            .block();
+
+        assertThat(response.getOutp()).isEqualTo("[\"a\",\"b\",\"c\"]");
+    }
+
+    private static MockHttpServerResponse writeIncrementally(Flux<String> output, int contentLengthThreshold) {
+        MockHttpServerResponse response = new MockHttpServerResponse();
+        Flux.from(incrementalResult(output, contentLengthThreshold).write(response)).ignoreElements().block();
+        return response;
+    }
+
+    private static JaxRsResult<String> incrementalResult(Flux<String> output, int contentLengthThreshold) {
+        ResponseConfig responseConfig = new ResponseConfig();
+        responseConfig.setIncrementalFluxSerialization(true);
+        responseConfig.setContentLengthThreshold(contentLengthThreshold);
+        JaxRsResultSerializerFactory serializerFactory = new JaxRsResultSerializerFactory(new JsonSerializerFactory(), responseConfig);
+        return new JaxRsResult<>(output,
+            HttpResponseStatus.OK,
+            serializerFactory.createSerializer(MediaType.APPLICATION_JSON, String.class, true),
+            serializerFactory.createBufferSerializer(MediaType.APPLICATION_JSON, String.class, true),
+            Collections.emptyMap());
+    }
 }
@@ -0,0 +1,205 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequest;
+import se.fortnox.reactivewizard.jaxrs.JaxRsRequestHandler;
+import se.fortnox.reactivewizard.jaxrs.JaxRsResourceFactory;
+import se.fortnox.reactivewizard.jaxrs.ResponseCache;
+import se.fortnox.reactivewizard.jaxrs.WebException;
+import se.fortnox.reactivewizard.json.JsonSerializerFactory;
+import se.fortnox.reactivewizard.mocks.MockHttpServerRequest;
+import se.fortnox.reactivewizard.mocks.MockHttpServerResponse;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.fortnox.reactivewizard.utils.JaxRsTestUtil.processRequestWithHandler;
+
+class ResultCacheTest {
+
+    private final CachedResource      resource = new CachedResource();
+    private final JaxRsRequestHandler handler  = new JaxRsRequestHandler(new Object[]{resource},
+        new JaxRsResourceFactory(),
+        new ExceptionHandler(),
+        false);
+
+    @Test
+    void shouldServeRepeatedRequestsFromCache() {
+        MockHttpServerResponse first  = get("/cached?country=se&ignored=1");
+        MockHttpServerResponse second = get("/cached?country=se&ignored=2");
+
+        assertThat(first.getOutp()).isEqualTo("\"se 1\"");
+        assertThat(second.getOutp()).isEqualTo("\"se 1\"");
+        assertThat(second.status()).isEqualTo(HttpResponseStatus.OK);
+        assertThat(second.responseHeaders().get(ETAG)).isEqualTo(first.responseHeaders().get(ETAG));
+        assertThat(resource.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheSelectedQueryParamsSeparately() {
+        assertThat(get("/cached?country=se").getOutp()).isEqualTo("\"se 1\"");
+        assertThat(get("/cached?country=no").getOutp()).isEqualTo("\"no 2\"");
+        assertThat(resource.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAnswerMatchingIfNoneMatchWithNotModified() {
+        String etag = get("/cached?country=se").responseHeaders().get(ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        MockHttpServerResponse notModified = get("/cached?country=se", "\"other\", W/" + etag);
+        assertThat(notModified.status()).isEqualTo(HttpResponseStatus.NOT_MODIFIED);
+        assertThat(notModified.getOutp()).isEmpty();
+        assertThat(notModified.responseHeaders().get(ETAG)).isEqualTo(etag);
+
+        assertThat(get("/cached?country=se", "\"other\"").getOutp()).isEqualTo("\"se 1\"");
+        assertThat(resource.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheErrors() {
+        assertThat(get("/cached?country=fail").status()).isEqualTo(HttpResponseStatus.BAD_REQUEST);
+        assertThat(get("/cached?country=fail").status()).isEqualTo(HttpResponseStatus.BAD_REQUEST);
+        assertThat(resource.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCallResourceAgainWhenExpiredOrEvicted() throws NoSuchMethodException {
+        ResponseCache       responseCache = CachedResource.class.getMethod("get", String.class).getAnnotation(ResponseCache.class);
+        long[]              now           = {0};
+        ResultCache<String> cache         = new ResultCache<>(responseCache, () -> now[0]);
+        AtomicInteger       calls         = new AtomicInteger();
+
+        assertThat(cachedBody(cache, "/cached?country=se", calls)).isEqualTo("\"1\"");
+        assertThat(cachedBody(cache, "/cached?country=se", calls)).isEqualTo("\"1\"");
+
+        now[0] = 60_000_000_000L;
+        assertThat(cachedBody(cache, "/cached?country=se", calls)).isEqualTo("\"2\"");
+
+        assertThat(cachedBody(cache, "/cached?country=no", calls)).isEqualTo("\"3\"");
+        assertThat(cachedBody(cache, "/cached?country=dk", calls)).isEqualTo("\"4\"");
+
+        // Only two entries fit, so one of the first two countries has been evicted
+        cachedBody(cache, "/cached?country=se", calls);
+        cachedBody(cache, "/cached?country=no", calls);
+        assertThat(calls.get()).isGreaterThan(4);
+    }
+
+    @Test
+    void shouldShareCallOfResourceBetweenConcurrentRequests() {
+        CoalescedResource   coalescedResource = new CoalescedResource();
+        JaxRsRequestHandler coalescingHandler = new JaxRsRequestHandler(new Object[]{coalescedResource},
+            new JaxRsResourceFactory(),
+            new ExceptionHandler(),
+            false);
+
+        MockHttpServerResponse first  = new MockHttpServerResponse();
+        MockHttpServerResponse second = new MockHttpServerResponse();
+        Mono<Void> firstWrite  = Flux.from(coalescingHandler.apply(new MockHttpServerRequest("/coalesced"), first)).then().cache();
+        Mono<Void> secondWrite = Flux.from(coalescingHandler.apply(new MockHttpServerRequest("/coalesced"), second)).then().cache();
+        firstWrite.subscribe();
+        secondWrite.subscribe();
+
+        coalescedResource.result.tryEmitValue("shared");
+        firstWrite.block();
+        secondWrite.block();
+
+        assertThat(first.getOutp()).isEqualTo("\"shared 1\"");
+        assertThat(second.getOutp()).isEqualTo("\"shared 1\"");
+        assertThat(coalescedResource.calls.get()).isEqualTo(1);
+
+        // Nothing is cached, so the next request calls the resource again
+        Mono<Void> thirdWrite = Flux.from(coalescingHandler.apply(new MockHttpServerRequest("/coalesced"), new MockHttpServerResponse())).then();
+        thirdWrite.block();
+        assertThat(coalescedResource.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOnlyCacheGetResources() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new JaxRsResourceFactory().createResources(new Object[]{new PostResource()}));
+    }
+
+    @Test
+    void shouldMatchIfNoneMatch() {
+        assertThat(ResultCache.matches(null, "\"a\"")).isFalse();
+        assertThat(ResultCache.matches("\"b\"", "\"a\"")).isFalse();
+        assertThat(ResultCache.matches("\"b\",\"a\"", "\"a\"")).isTrue();
+        assertThat(ResultCache.matches("W/\"a\"", "\"a\"")).isTrue();
+        assertThat(ResultCache.matches("*", "\"a\"")).isTrue();
+    }
+
+    private MockHttpServerResponse get(String uri) {
+        return processRequestWithHandler(handler, new MockHttpServerRequest(uri));
+    }
+
+    private MockHttpServerResponse get(String uri, String ifNoneMatch) {
+        MockHttpServerRequest request = new MockHttpServerRequest(uri);
+        request.requestHeaders().add(IF_NONE_MATCH, ifNoneMatch);
+        return processRequestWithHandler(handler, request);
+    }
+
+    private static String cachedBody(ResultCache<String> cache, String uri, AtomicInteger calls) {
+        JaxRsResultSerializerFactory serializerFactory = new JaxRsResultSerializerFactory(new JsonSerializerFactory());
+        JaxRsResult<String> result = cache.get(new JaxRsRequest(new MockHttpServerRequest(uri)),
+            () -> Mono.just(new JaxRsResult<>(Mono.fromSupplier(() -> String.valueOf(calls.incrementAndGet())).flux(),
+                HttpResponseStatus.OK,
+                serializerFactory.createSerializer(MediaType.APPLICATION_JSON, String.class, false),
+                Map.of()))).block();
+
+        MockHttpServerResponse response = new MockHttpServerResponse();
+        Flux.from(result.write(response)).ignoreElements().block();
+        return response.getOutp();
+    }
+
+    @Path("cached")
+    public static class CachedResource {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @GET
+        @ResponseCache(maxEntries = 2, queryParams = "country")
+        public Mono<String> get(@QueryParam("country") String country) {
+            int call = calls.incrementAndGet();
+            if ("fail".equals(country)) {
+                return Mono.error(new WebException(HttpResponseStatus.BAD_REQUEST));
+            }
+            return Mono.just(country + " " + call);
+        }
+    }
+
+    @Path("coalesced")
+    public static class CoalescedResource {
+        private final AtomicInteger     calls  = new AtomicInteger();
+        private final Sinks.One<String> result = Sinks.one();
+
+        @GET
+        @ResponseCache(ttlSeconds = 0, coalesce = true)
+        public Mono<String> get() {
+            int call = calls.incrementAndGet();
+            return result.asMono().map(value -> value + " " + call);
+        }
+    }
+
+    @Path("post")
+    public static class PostResource {
+        @POST
+        @ResponseCache
+        public Mono<String> post() {
+            return Mono.empty();
+        }
+    }
+}
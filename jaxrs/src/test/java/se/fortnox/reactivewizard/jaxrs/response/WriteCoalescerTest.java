@@ -0,0 +1,108 @@
+package se.fortnox.reactivewizard.jaxrs.response;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteCoalescerTest {
+
+    @Test
+    void shouldCoalesceChunksUntilMaxBytes() {
+        WriteCoalescer writeCoalescer = new WriteCoalescer(4, Duration.ofSeconds(10));
+
+        StepVerifier.create(writeCoalescer.apply(Flux.just("a", "b", "cd", "e", "fgh", "i").map(this::bytes)).map(this::string))
+            .expectNext("abcd")
+            .expectNext("efgh")
+            .expectNext("i")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldWriteCoalescedChunkAfterMaxDelay() {
+        WriteCoalescer     writeCoalescer = new WriteCoalescer(1024, Duration.ofMillis(10));
+        Sinks.Many<byte[]> chunks         = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(writeCoalescer.apply(chunks.asFlux()).map(this::string))
+            .then(() -> chunks.tryEmitNext(bytes("ab")))
+            .expectNext("ab")
+            .then(() -> {
+                chunks.tryEmitNext(bytes("c"));
+                chunks.tryEmitComplete();
+            })
+            .expectNext("c")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldWriteCoalescedChunkMaxDelayAfterItsFirstChunk() {
+        VirtualTimeScheduler scheduler      = VirtualTimeScheduler.create();
+        WriteCoalescer       writeCoalescer = new WriteCoalescer(1024, Duration.ofMillis(10), scheduler);
+        Sinks.Many<byte[]>   chunks         = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(writeCoalescer.apply(chunks.asFlux()).map(this::string))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(25)))
+            .then(() -> chunks.tryEmitNext(bytes("a")))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(5)))
+            .then(() -> chunks.tryEmitNext(bytes("b")))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(4)))
+            .expectNoEvent(Duration.ZERO)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(1)))
+            .expectNext("ab")
+            .then(() -> chunks.tryEmitNext(bytes("c")))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(9)))
+            .expectNoEvent(Duration.ZERO)
+            .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(1)))
+            .expectNext("c")
+            .then(chunks::tryEmitComplete)
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldNotScheduleFlushWhileNoChunkIsWaiting() {
+        VirtualTimeScheduler scheduler      = VirtualTimeScheduler.create();
+        WriteCoalescer       writeCoalescer = new WriteCoalescer(2, Duration.ofMillis(10), scheduler);
+        Sinks.Many<byte[]>   chunks         = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(writeCoalescer.apply(chunks.asFlux()).map(this::string))
+            .then(() -> assertThat(scheduler.getScheduledTaskCount()).isZero())
+            .then(() -> chunks.tryEmitNext(bytes("ab")))
+            .expectNext("ab")
+            .then(() -> assertThat(scheduler.getScheduledTaskCount()).isEqualTo(1))
+            .then(() -> scheduler.advanceTimeBy(Duration.ofSeconds(1)))
+            .then(() -> assertThat(scheduler.getScheduledTaskCount()).isEqualTo(1))
+            .then(chunks::tryEmitComplete)
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldOnlyRequestChunksAsRequested() {
+        WriteCoalescer writeCoalescer = new WriteCoalescer(1, Duration.ofSeconds(10));
+        AtomicInteger  produced       = new AtomicInteger();
+        Flux<byte[]>   chunks         = Flux.range(0, 1000)
+            .doOnNext(index -> produced.incrementAndGet())
+            .map(index -> bytes("x"));
+
+        StepVerifier.create(writeCoalescer.apply(chunks), 1)
+            .expectNextCount(1)
+            .thenCancel()
+            .verify();
+
+        assertThat(produced.get()).isLessThan(1000);
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private String string(byte[] bytes) {
+        return new String(bytes, UTF_8);
+    }
+}
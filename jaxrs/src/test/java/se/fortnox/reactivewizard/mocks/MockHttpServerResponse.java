@@ -2,6 +2,8 @@ package se.fortnox.reactivewizard.mocks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
@@ -70,7 +72,7 @@ public class MockHttpServerResponse implements HttpServerResponse {
 
     @Override
     public ByteBufAllocator alloc() {
-        return null;
+        return UnpooledByteBufAllocator.DEFAULT;
     }
 
     @Override
@@ -88,7 +90,14 @@ public class MockHttpServerResponse implements HttpServerResponse {
 
     @Override
     public NettyOutbound send(Publisher<? extends ByteBuf> dataStream, Predicate<ByteBuf> predicate) {
-        return null;
+        // Like a real response, the send completes when the data has been consumed
+        Flux<byte[]> bytes = Flux.from(dataStream).map(buffer -> {
+            byte[] data = ByteBufUtil.getBytes(buffer);
+            buffer.release();
+            return data;
+        }).cache();
+        sendByteArray(bytes);
+        return then(bytes.then());
     }
 
     @Override
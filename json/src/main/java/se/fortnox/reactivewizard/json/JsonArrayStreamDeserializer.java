@@ -0,0 +1,109 @@
+package se.fortnox.reactivewizard.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deserializes the elements of a json array as the bytes of the array arrive, using a non-blocking parser. Each instance
+ * holds the parsing state of one array, so a new instance is needed for each array.
+ *
+ * @param <T> the type of the array elements
+ */
+public class JsonArrayStreamDeserializer<T> {
+    private final ObjectReader     reader;
+    private final JsonParser       parser;
+    private final ByteBufferFeeder inputFeeder;
+    private       TokenBuffer      tokenBuffer;
+    private       int              depth = -1;
+    private       boolean          arrayEnded;
+
+    JsonArrayStreamDeserializer(ObjectReader reader, JsonParser parser) {
+        this.reader = reader;
+        this.parser = parser;
+        this.inputFeeder = (ByteBufferFeeder)parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feed the next bytes of the array. The bytes are consumed before this method returns.
+     *
+     * @param input the next bytes
+     * @return the elements completed by the bytes, excluding null elements
+     * @throws InvalidJsonException if the bytes are not part of a valid json array
+     */
+    public List<T> deserialize(ByteBuffer input) {
+        try {
+            inputFeeder.feedInput(input);
+            return readElements();
+        } catch (IOException e) {
+            throw new InvalidJsonException(e);
+        }
+    }
+
+    /**
+     * Signal that all bytes of the array have been fed.
+     *
+     * @return the elements completed by the end of input, excluding null elements
+     * @throws InvalidJsonException if the array was incomplete
+     */
+    public List<T> complete() {
+        try {
+            inputFeeder.endOfInput();
+            List<T> elements = readElements();
+            if (!arrayEnded) {
+                throw new JsonParseException(parser, "Unexpected end of input, expected end of json array");
+            }
+            return elements;
+        } catch (IOException e) {
+            throw new InvalidJsonException(e);
+        }
+    }
+
+    private List<T> readElements() throws IOException {
+        List<T>   elements = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (arrayEnded) {
+                throw new JsonParseException(parser, "Unexpected content after end of json array");
+            }
+            if (depth == -1) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Expected a json array but got " + token);
+                }
+                depth = 0;
+                continue;
+            }
+            if (depth == 0 && token == JsonToken.END_ARRAY) {
+                arrayEnded = true;
+                continue;
+            }
+
+            if (tokenBuffer == null) {
+                tokenBuffer = new TokenBuffer(parser);
+            }
+            tokenBuffer.copyCurrentEvent(parser);
+            if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                depth++;
+            } else if (token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+                depth--;
+            }
+
+            if (depth == 0) {
+                T element = reader.readValue(tokenBuffer.asParser());
+                tokenBuffer = null;
+                if (element != null) {
+                    elements.add(element);
+                }
+            }
+        }
+        return elements;
+    }
+}
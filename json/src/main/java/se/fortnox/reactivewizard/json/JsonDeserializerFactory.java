@@ -8,8 +8,12 @@ import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Creates instances of JSON deserializers.
@@ -64,6 +68,45 @@ public class JsonDeserializerFactory {
         return createByteDeserializer(mapper.readerFor(paramType));
     }
 
+    public <T> Function<InputStream, T> createInputStreamDeserializer(TypeReference<T> typeReference) {
+        return createInputStreamDeserializer(mapper.readerFor(typeReference));
+    }
+
+    public <T> Function<InputStream, T> createInputStreamDeserializer(Class<T> paramType) {
+        return createInputStreamDeserializer(mapper.readerFor(paramType));
+    }
+
+    private <T> Function<InputStream, T> createInputStreamDeserializer(ObjectReader reader) {
+        return inputStream -> {
+            if (inputStream == null) {
+                return null;
+            }
+            try {
+                return reader.readValue(inputStream);
+            } catch (Exception e) {
+                throw new InvalidJsonException(e);
+            }
+        };
+    }
+
+    /**
+     * Create a supplier of deserializers for json arrays that arrive in chunks.
+     *
+     * @param elementType the type of the array elements
+     * @param <T> the type of the array elements
+     * @return a supplier of a new deserializer for each array
+     */
+    public <T> Supplier<JsonArrayStreamDeserializer<T>> createArrayStreamDeserializer(TypeReference<T> elementType) {
+        ObjectReader reader = mapper.readerFor(elementType);
+        return () -> {
+            try {
+                return new JsonArrayStreamDeserializer<>(reader, mapper.getFactory().createNonBlockingByteBufferParser());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
     private <T> Function<byte[], T> createByteDeserializer(ObjectReader reader) {
         return bytes -> {
             if (bytes == null) {
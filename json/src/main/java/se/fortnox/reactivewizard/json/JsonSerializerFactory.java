@@ -11,8 +11,10 @@ import com.fasterxml.jackson.databind.util.StdDateFormat;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -90,4 +92,31 @@ public class JsonSerializerFactory {
         return createByteSerializer(mapper.writerFor(listType));
     }
 
+    /**
+     * Create a serializer that writes directly to an output stream, which lets the caller decide where the bytes end up
+     * instead of getting them as a new byte array. The output stream is closed when the object has been written.
+     *
+     * @param paramType the type to serialize
+     * @param <T> the type to serialize
+     * @return the serializer
+     */
+    public <T> BiConsumer<T, OutputStream> createOutputStreamSerializer(Class<T> paramType) {
+        return createOutputStreamSerializer(mapper.writerFor(paramType));
+    }
+
+    public <T> BiConsumer<List<T>, OutputStream> createListToOutputStreamSerializer(Class<T> paramType) {
+        CollectionType listType = mapper.getTypeFactory().constructCollectionType(List.class, paramType);
+        return createOutputStreamSerializer(mapper.writerFor(listType));
+    }
+
+    private <T> BiConsumer<T, OutputStream> createOutputStreamSerializer(ObjectWriter writer) {
+        return (object, outputStream) -> {
+            try {
+                writer.writeValue(outputStream, object);
+            } catch (Exception e) {
+                throw new InvalidJsonException(e);
+            }
+        };
+    }
+
 }
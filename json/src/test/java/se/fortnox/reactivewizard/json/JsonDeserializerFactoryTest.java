@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -16,6 +18,7 @@ import java.util.function.Function;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
 
 class JsonDeserializerFactoryTest {
@@ -170,6 +173,45 @@ class JsonDeserializerFactoryTest {
         assertThat(result.get(1)).isEqualTo("b");
     }
 
+    @Test
+    void shouldDeserializeArrayElementsAsBytesArrive() {
+        JsonArrayStreamDeserializer<ImmutableEntity> deserializer = deserializerFactory
+            .createArrayStreamDeserializer(immutableEntityTypeReference)
+            .get();
+
+        assertThat(deserializer.deserialize(bytes("[{\"stringProperty\":\"fo"))).isEmpty();
+        assertThat(deserializer.deserialize(bytes("o\",\"intProperty\":5},null,{\"stringProperty\":\"bar\"")))
+            .containsExactly(immutableEntity);
+        assertThat(deserializer.deserialize(bytes(",\"intProperty\":6}]"))).containsExactly(new ImmutableEntity("bar", 6));
+        assertThat(deserializer.complete()).isEmpty();
+    }
+
+    @Test
+    void shouldThrowInvalidJsonExceptionForIncompleteArray() {
+        JsonArrayStreamDeserializer<ImmutableEntity> deserializer = deserializerFactory
+            .createArrayStreamDeserializer(immutableEntityTypeReference)
+            .get();
+
+        deserializer.deserialize(bytes("[{\"stringProperty\":\"foo\",\"intProperty\":5}"));
+        assertThatExceptionOfType(InvalidJsonException.class)
+            .isThrownBy(deserializer::complete);
+    }
+
+    @Test
+    void shouldThrowInvalidJsonExceptionForStreamedNonArray() {
+        JsonArrayStreamDeserializer<ImmutableEntity> deserializer = deserializerFactory
+            .createArrayStreamDeserializer(immutableEntityTypeReference)
+            .get();
+
+        assertThatExceptionOfType(InvalidJsonException.class)
+            .isThrownBy(() -> deserializer.deserialize(bytes("{\"stringProperty\":\"foo\"}")))
+            .withMessageContaining("Expected a json array");
+    }
+
+    private static ByteBuffer bytes(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
     private List<String> methodReturningListOfString() {
         return asList("a", "b");
     }
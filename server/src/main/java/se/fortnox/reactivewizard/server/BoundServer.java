@@ -0,0 +1,125 @@
+package se.fortnox.reactivewizard.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sockets of a server bound to its port, and the event loops dedicated to the server, if any. With more than one
+ * acceptor the port is bound once per acceptor with SO_REUSEPORT. The sockets are disposed together, after which the
+ * event loops are shut down.
+ */
+final class BoundServer implements DisposableServer {
+    private static final String LOOP_PREFIX = "rw-server";
+
+    private final List<DisposableServer> servers;
+    private final LoopResources          loopResources;
+
+    private BoundServer(List<DisposableServer> servers, LoopResources loopResources) {
+        this.servers = servers;
+        this.loopResources = loopResources;
+    }
+
+    /**
+     * Bind a server according to the transport settings of a config.
+     *
+     * @param httpServer the server
+     * @param config the config
+     * @return the bound server
+     * @throws IllegalArgumentException if multiple acceptors are configured without the native epoll transport
+     */
+    static DisposableServer bind(HttpServer httpServer, ServerConfig config) {
+        int acceptors = config.getAcceptors();
+        if (acceptors > 1 && !(config.isPreferNativeTransport() && Epoll.isAvailable())) {
+            throw new IllegalArgumentException("Multiple acceptors require the native epoll transport", Epoll.unavailabilityCause());
+        }
+        if (config.getEventLoopThreads() <= 0 && acceptors <= 1) {
+            return httpServer.runOn(HttpResources.get(), config.isPreferNativeTransport()).bindNow();
+        }
+
+        int workers = config.getEventLoopThreads() > 0 ? config.getEventLoopThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        LoopResources loopResources = acceptors > 1
+            ? LoopResources.create(LOOP_PREFIX, acceptors, workers, true)
+            : LoopResources.create(LOOP_PREFIX, workers, true);
+        HttpServer server = httpServer.runOn(loopResources, config.isPreferNativeTransport());
+        if (acceptors > 1) {
+            server = server.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+
+        List<DisposableServer> servers = new ArrayList<>(acceptors);
+        try {
+            servers.add(server.bindNow());
+            // A random port is chosen by the first bind, and shared by the rest
+            server = server.port(servers.getFirst().port());
+            while (servers.size() < acceptors) {
+                servers.add(server.bindNow());
+            }
+        } catch (RuntimeException e) {
+            servers.forEach(DisposableServer::dispose);
+            loopResources.dispose();
+            throw e;
+        }
+        return new BoundServer(servers, loopResources);
+    }
+
+    @Override
+    public Channel channel() {
+        return servers.getFirst().channel();
+    }
+
+    @Override
+    public SocketAddress address() {
+        return channel().localAddress();
+    }
+
+    @Override
+    public String host() {
+        return ((InetSocketAddress)address()).getHostString();
+    }
+
+    @Override
+    public int port() {
+        return ((InetSocketAddress)address()).getPort();
+    }
+
+    @Override
+    public void dispose() {
+        servers.forEach(DisposableServer::dispose);
+        loopResources.disposeLater().subscribe();
+    }
+
+    /**
+     * Stop accepting connections on all sockets, and wait for the active connections to complete, before shutting down
+     * the event loops.
+     */
+    @Override
+    public void disposeNow(Duration timeout) {
+        Flux.fromIterable(servers)
+            .flatMap(server -> Mono.fromRunnable(() -> server.disposeNow(timeout)).subscribeOn(Schedulers.boundedElastic()))
+            .then(loopResources.disposeLater(Duration.ZERO, timeout))
+            .block();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return servers.stream().allMatch(DisposableServer::isDisposed);
+    }
+
+    @Override
+    public Mono<Void> onDispose() {
+        return Mono.when(servers.stream().map(DisposableServer::onDispose).toList());
+    }
+}
@@ -4,17 +4,23 @@ import jakarta.inject.Inject;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.PrioritizedPublisher;
 import se.fortnox.reactivewizard.RequestHandler;
 import se.fortnox.reactivewizard.jaxrs.RequestLogger;
+import se.fortnox.reactivewizard.jaxrs.RequestPriority;
 import se.fortnox.reactivewizard.jaxrs.WebException;
 
 import java.util.Set;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.RETRY_AFTER;
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 
 /**
  * Calls each @{@link RequestHandler} with a request until one returns a result.
@@ -23,18 +29,27 @@ import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 public class CompositeRequestHandler implements RequestHandler {
     private static final Logger log = LoggerFactory.getLogger(CompositeRequestHandler.class);
     private static final String ERROR_RESOURCE_NOT_FOUND = "resource.not.found";
+    private static final String ERROR_CONCURRENCY_LIMIT_EXCEEDED = "concurrency.limit.exceeded";
     private final Set<RequestHandler> handlers;
     private final ExceptionHandler exceptionHandler;
     private final ConnectionCounter connectionCounter;
     private final RequestLogger requestLogger;
+    private final ConcurrencyLimiter concurrencyLimiter;
 
     @Inject
     public CompositeRequestHandler(Set<RequestHandler> handlers, ExceptionHandler exceptionHandler,
-                                   ConnectionCounter connectionCounter, RequestLogger requestLogger) {
+                                   ConnectionCounter connectionCounter, RequestLogger requestLogger,
+                                   ConcurrencyLimiter concurrencyLimiter) {
         this.handlers = handlers;
         this.exceptionHandler = exceptionHandler;
         this.connectionCounter = connectionCounter;
         this.requestLogger = requestLogger;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public CompositeRequestHandler(Set<RequestHandler> handlers, ExceptionHandler exceptionHandler,
+                                   ConnectionCounter connectionCounter, RequestLogger requestLogger) {
+        this(handlers, exceptionHandler, connectionCounter, requestLogger, new ConcurrencyLimiter(new ConcurrencyLimitConfig()));
     }
 
     @Override
@@ -44,9 +59,12 @@ public class CompositeRequestHandler implements RequestHandler {
             for (RequestHandler handler : handlers) {
                 Publisher<Void> result = handler.apply(request, response);
                 if (result != null) {
-
-                    return Flux.from(result).onErrorResume(exception -> exceptionHandler
+                    Flux<Void> handledResult = Flux.from(result).onErrorResume(exception -> exceptionHandler
                         .handleException(request, response, exception));
+                    if (concurrencyLimiter.isEnabled()) {
+                        return limit(request, response, handledResult, PrioritizedPublisher.priorityOf(result));
+                    }
+                    return handledResult;
                 }
             }
         } catch (Exception exception) {
@@ -59,4 +77,23 @@ public class CompositeRequestHandler implements RequestHandler {
             .doOnSubscribe(s -> connectionCounter.increase())
             .doFinally(s -> connectionCounter.decrease());
     }
+
+    /**
+     * Handle a request when it is subscribed, if the concurrency limit allows it, or reject it with 503 Service
+     * Unavailable otherwise. Rejected requests are not logged as errors, since they are rejected by design.
+     */
+    private Publisher<Void> limit(HttpServerRequest request, HttpServerResponse response, Flux<Void> result,
+                                  RequestPriority.Level priority) {
+        return Flux.defer(() -> {
+            ConcurrencyLimiter.Request limitedRequest = concurrencyLimiter.tryStart(priority);
+            if (limitedRequest == null) {
+                final long rejectTime = System.currentTimeMillis();
+                response.addHeader(RETRY_AFTER, String.valueOf(concurrencyLimiter.getRetryAfterSeconds()));
+                return Flux.from(exceptionHandler.handleException(request, response,
+                        new WebException(SERVICE_UNAVAILABLE, ERROR_CONCURRENCY_LIMIT_EXCEEDED).withLogLevel(Level.DEBUG)))
+                    .doOnTerminate(() -> requestLogger.logRequestResponse(request, response, rejectTime, log));
+            }
+            return result.doFinally(signal -> limitedRequest.complete(signal == SignalType.ON_COMPLETE));
+        });
+    }
 }
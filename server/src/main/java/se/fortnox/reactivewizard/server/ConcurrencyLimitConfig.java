@@ -0,0 +1,119 @@
+package se.fortnox.reactivewizard.server;
+
+import se.fortnox.reactivewizard.config.Config;
+
+/**
+ * Configures the limit of concurrent requests handled by the server. The limit adapts to the latency of the requests,
+ * and is lowered when the latency grows above the latency measured over a longer time. Requests above the limit are
+ * rejected with 503 Service Unavailable.
+ */
+@Config("concurrencyLimit")
+public class ConcurrencyLimitConfig {
+    private boolean enabled           = false;
+    private int     initialLimit      = 20;
+    private int     minLimit          = 20;
+    private int     maxLimit          = 1000;
+    private double  rttTolerance      = 1.5;
+    private double  smoothing         = 0.2;
+    private int     longWindowMs      = 10_000;
+    private double  lowPriorityShare  = 0.5;
+    private int     retryAfterSeconds = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * How many times longer than the long term latency the latency of a request may be before the limit is lowered.
+     *
+     * @return the tolerance
+     */
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    /**
+     * How much of a new limit is applied on each request, between 0 and 1.
+     *
+     * @return the smoothing factor
+     */
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * The time that the long term latency is averaged over. The window is a time rather than a number of requests, so
+     * that a burst of slow requests lowers the limit before the long term latency has caught up with them.
+     *
+     * @return the time in milliseconds
+     */
+    public int getLongWindowMs() {
+        return longWindowMs;
+    }
+
+    public void setLongWindowMs(int longWindowMs) {
+        this.longWindowMs = longWindowMs;
+    }
+
+    /**
+     * The share of the limit that requests of low priority may use.
+     *
+     * @return the share, between 0 and 1
+     */
+    public double getLowPriorityShare() {
+        return lowPriorityShare;
+    }
+
+    public void setLowPriorityShare(double lowPriorityShare) {
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    /**
+     * The time that rejected clients are told to wait before retrying, in the Retry-After header.
+     *
+     * @return the time in seconds
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,146 @@
+package se.fortnox.reactivewizard.server;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import se.fortnox.reactivewizard.jaxrs.RequestPriority;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of concurrent requests, with a limit that follows the latency of the requests. The latency of
+ * each completed request is compared to the latency averaged over a longer time, and the limit is lowered by the
+ * same ratio when requests get slower than the tolerance allows, or raised by the square root of the limit otherwise.
+ * The limit is only changed while it is being used, so that an idle server does not raise it without bounds.
+ */
+@Singleton
+public class ConcurrencyLimiter {
+    static final String LIMIT_METRIC    = "IN_concurrency_limit";
+    static final String INFLIGHT_METRIC = "IN_concurrency_inflight";
+    static final String REJECTED_METRIC = "IN_concurrency_rejected";
+
+    private final ConcurrencyLimitConfig config;
+    private final LongSupplier           nanoTime;
+    private final AtomicInteger          inflight = new AtomicInteger();
+    private final Counter                rejected;
+    private volatile double              limit;
+    private double                       longRtt;
+    private long                         longRttUpdated;
+
+    @Inject
+    public ConcurrencyLimiter(ConcurrencyLimitConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    ConcurrencyLimiter(ConcurrencyLimitConfig config, LongSupplier nanoTime) {
+        this.config = config;
+        this.nanoTime = nanoTime;
+        this.limit = config.getInitialLimit();
+
+        MetricRegistry registry = Metrics.registry();
+        this.rejected = registry.counter(REJECTED_METRIC);
+        if (config.isEnabled()) {
+            registry.remove(LIMIT_METRIC);
+            registry.register(LIMIT_METRIC, (Gauge<Integer>)this::getLimit);
+            registry.remove(INFLIGHT_METRIC);
+            registry.register(INFLIGHT_METRIC, (Gauge<Integer>)inflight::get);
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Start a request if the limit of its priority allows it.
+     *
+     * @param priority the priority of the request
+     * @return the start of the request, to be completed when the request is done, or null if the request is rejected
+     */
+    public Request tryStart(RequestPriority.Level priority) {
+        int current = inflight.incrementAndGet();
+        if (priority != RequestPriority.Level.CRITICAL && current > limitOf(priority)) {
+            inflight.decrementAndGet();
+            rejected.inc();
+            return null;
+        }
+        return new Request(nanoTime.getAsLong(), current);
+    }
+
+    public int getRetryAfterSeconds() {
+        return config.getRetryAfterSeconds();
+    }
+
+    public int getLimit() {
+        return (int)limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private double limitOf(RequestPriority.Level priority) {
+        if (priority == RequestPriority.Level.LOW) {
+            return Math.max(1, limit * config.getLowPriorityShare());
+        }
+        return limit;
+    }
+
+    private synchronized void update(long now, long rtt, int inflightAtStart) {
+        if (rtt <= 0) {
+            rtt = 1;
+        }
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            // Weigh each latency by the time since the last one, so that the average moves at the same pace however
+            // many requests complete at once
+            double elapsed = Math.max(0, now - longRttUpdated);
+            longRtt += (rtt - longRtt) * (1 - Math.exp(-elapsed / TimeUnit.MILLISECONDS.toNanos(config.getLongWindowMs())));
+        }
+        longRttUpdated = now;
+        // Let the long term latency recover quickly once requests are fast again
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inflightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+    }
+
+    /**
+     * A started request.
+     */
+    public final class Request {
+        private final long startTime;
+        private final int  inflightAtStart;
+
+        private Request(long startTime, int inflightAtStart) {
+            this.startTime = startTime;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /**
+         * Complete the request, and update the limit with its latency if it was handled.
+         *
+         * @param handled whether the request was handled, rather than cancelled or failed
+         */
+        public void complete(boolean handled) {
+            inflight.decrementAndGet();
+            if (handled) {
+                long now = nanoTime.getAsLong();
+                update(now, now - startTime, inflightAtStart);
+            }
+        }
+    }
+}
@@ -22,6 +22,10 @@ public class NoContentFixConfigurator implements Consumer<ChannelPipeline> {
 
     @Override
     public void accept(ChannelPipeline pipeline) {
+        // Connections serving only HTTP/2 have no HTTP/1.1 traffic handler, and HTTP/2 frames carry no such headers
+        if (pipeline.get(HttpTrafficHandler) == null) {
+            return;
+        }
         pipeline.addBefore(HttpTrafficHandler, "NoContentFix", new NoContentBodyFix());
     }
 
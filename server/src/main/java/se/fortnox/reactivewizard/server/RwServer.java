@@ -1,5 +1,6 @@
 package se.fortnox.reactivewizard.server;
 
+import io.netty.channel.ChannelOption;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpUtil;
@@ -14,6 +15,7 @@ import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 import se.fortnox.reactivewizard.RequestHandler;
 import se.fortnox.reactivewizard.logging.LoggingShutdownHandler;
+import se.fortnox.reactivewizard.server.modifiers.HttpProtocolConfigurer;
 import se.fortnox.reactivewizard.server.modifiers.NoContentFixConfigurer;
 import se.fortnox.reactivewizard.server.modifiers.RequestSizesConfigurer;
 
@@ -60,7 +62,8 @@ public class RwServer extends Thread {
     public RwServer(ServerConfig config, CompositeRequestHandler compositeRequestHandler,
                     ConnectionCounter connectionCounter, LoggingShutdownHandler loggingShutdownHandler) {
         this(config, compositeRequestHandler, connectionCounter,
-            Set.of(new NoContentFixConfigurer(), new RequestSizesConfigurer(config)), loggingShutdownHandler);
+            Set.of(new NoContentFixConfigurer(), new RequestSizesConfigurer(config), new HttpProtocolConfigurer(config)),
+            loggingShutdownHandler);
     }
 
     RwServer(ServerConfig config, ConnectionCounter connectionCounter, HttpServer httpServer,
@@ -79,7 +82,7 @@ public class RwServer extends Thread {
             if (disposableServer != null) {
                 server = disposableServer;
             } else {
-                server = httpServer.handle(compositeRequestHandler).bindNow();
+                server = BoundServer.bind(httpServer.handle(compositeRequestHandler), config);
             }
             LOG.info("Server started on port {}", server.port());
             start();
@@ -100,7 +103,12 @@ public class RwServer extends Thread {
             .compress(isCompressionEnabled(config).and(isCompressibleResponse()))
             .port(config.getPort())
             // Register a channel group, when invoking disposeNow() the implementation will wait for the active requests to finish
-            .channelGroup(new DefaultChannelGroup(new DefaultEventExecutor()));
+            .channelGroup(new DefaultChannelGroup(new DefaultEventExecutor()))
+            .childOption(ChannelOption.TCP_NODELAY, config.isTcpNoDelay());
+
+        if (config.getSoBacklog() > 0) {
+            server = server.option(ChannelOption.SO_BACKLOG, config.getSoBacklog());
+        }
 
         final List<ReactorServerConfigurer> orderedListByPrio = serverConfigurers
             .stream()
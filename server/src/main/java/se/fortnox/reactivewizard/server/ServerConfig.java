@@ -1,7 +1,10 @@
 package se.fortnox.reactivewizard.server;
 
+import reactor.netty.http.HttpProtocol;
 import se.fortnox.reactivewizard.config.Config;
 
+import java.util.List;
+
 /**
  * Configuration for a server.
  */
@@ -15,6 +18,17 @@ public class ServerConfig {
     private int shutdownTimeoutSeconds = 20;
     private boolean enableGzip = true;
     private long shutdownDelaySeconds = 5;
+    private boolean pooledRequestBody = false;
+    private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+    private String sslCertificateFile;
+    private String sslKeyFile;
+    private long http2MaxConcurrentStreams = 100;
+    private int http2InitialWindowSize = 65535;
+    private boolean preferNativeTransport = true;
+    private int eventLoopThreads = 0;
+    private int acceptors = 1;
+    private int soBacklog = 0;
+    private boolean tcpNoDelay = true;
 
     public int getPort() {
         return port;
@@ -79,4 +93,138 @@ public class ServerConfig {
     public void setShutdownDelaySeconds(int shutdownDelaySeconds) {
         this.shutdownDelaySeconds = shutdownDelaySeconds;
     }
+
+    /**
+     * Keep request bodies in the received network buffers until the resource parameters are resolved, instead of
+     * copying them to a byte[].
+     *
+     * @return whether request bodies are kept in pooled buffers
+     */
+    public boolean isPooledRequestBody() {
+        return pooledRequestBody;
+    }
+
+    public void setPooledRequestBody(boolean pooledRequestBody) {
+        this.pooledRequestBody = pooledRequestBody;
+    }
+
+    /**
+     * The http protocols served. HTTP11 and H2C can be combined, in which case HTTP/1.1 connections may be upgraded to
+     * HTTP/2, and clients may also use HTTP/2 with prior knowledge. H2 requires a certificate, and is negotiated with
+     * ALPN, falling back to HTTP/1.1 if HTTP11 is also served.
+     *
+     * @return the protocols
+     */
+    public List<HttpProtocol> getProtocols() {
+        return protocols;
+    }
+
+    public void setProtocols(List<HttpProtocol> protocols) {
+        this.protocols = protocols;
+    }
+
+    /**
+     * The certificate chain file, in PEM format, used to serve TLS. TLS is only served if it is set.
+     *
+     * @return the path of the certificate chain file
+     */
+    public String getSslCertificateFile() {
+        return sslCertificateFile;
+    }
+
+    public void setSslCertificateFile(String sslCertificateFile) {
+        this.sslCertificateFile = sslCertificateFile;
+    }
+
+    /**
+     * The private key file of the certificate, in PKCS#8 PEM format.
+     *
+     * @return the path of the key file
+     */
+    public String getSslKeyFile() {
+        return sslKeyFile;
+    }
+
+    public void setSslKeyFile(String sslKeyFile) {
+        this.sslKeyFile = sslKeyFile;
+    }
+
+    public long getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public void setHttp2MaxConcurrentStreams(long http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    public int getHttp2InitialWindowSize() {
+        return http2InitialWindowSize;
+    }
+
+    public void setHttp2InitialWindowSize(int http2InitialWindowSize) {
+        this.http2InitialWindowSize = http2InitialWindowSize;
+    }
+
+    /**
+     * Use the native transport (io_uring, epoll or kqueue) when it is available on the classpath, instead of NIO.
+     *
+     * @return whether the native transport is preferred
+     */
+    public boolean isPreferNativeTransport() {
+        return preferNativeTransport;
+    }
+
+    public void setPreferNativeTransport(boolean preferNativeTransport) {
+        this.preferNativeTransport = preferNativeTransport;
+    }
+
+    /**
+     * The number of event loop threads handling the connections of the server. With 0 the server shares the default
+     * event loops of Reactor Netty with the http clients, otherwise it runs on event loops of its own.
+     *
+     * @return the number of event loop threads
+     */
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public void setEventLoopThreads(int eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    /**
+     * The number of sockets accepting connections on the port. With more than one, the port is bound once per acceptor
+     * with SO_REUSEPORT, each on a thread of its own, and the kernel spreads new connections over them. Requires the
+     * native epoll transport.
+     *
+     * @return the number of acceptors
+     */
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * The max number of pending connections waiting to be accepted. With 0 the default of the operating system is used.
+     *
+     * @return the accept backlog
+     */
+    public int getSoBacklog() {
+        return soBacklog;
+    }
+
+    public void setSoBacklog(int soBacklog) {
+        this.soBacklog = soBacklog;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
 }
@@ -59,7 +59,7 @@ public class ServerModule implements AutoBindModule {
         Multibinder.newSetBinder(binder, TypeLiteral.get(ParamResolver.class));
         binder.bind(DateFormat.class).toProvider(StdDateFormat::new);
 
-        ByteBufCollector byteBufCollector = new ByteBufCollector(config.getMaxRequestSize());
+        ByteBufCollector byteBufCollector = new ByteBufCollector(config.getMaxRequestSize(), config.isPooledRequestBody());
         binder.bind(ByteBufCollector.class).toInstance(byteBufCollector);
 
         JaxRsResourceRegistry jaxRsResourceRegistry = new JaxRsResourceRegistry();
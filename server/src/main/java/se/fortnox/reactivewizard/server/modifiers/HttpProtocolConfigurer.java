@@ -0,0 +1,59 @@
+package se.fortnox.reactivewizard.server.modifiers;
+
+import com.google.inject.Inject;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import se.fortnox.reactivewizard.server.ReactorServerConfigurer;
+import se.fortnox.reactivewizard.server.ServerConfig;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Configures the http protocols of the server, TLS and the HTTP/2 settings. Each HTTP/2 stream is handled as a request
+ * of its own, so request handlers, compression and connection counting work the same as for HTTP/1.1.
+ */
+public class HttpProtocolConfigurer implements ReactorServerConfigurer {
+    private final ServerConfig serverConfig;
+
+    @Inject
+    public HttpProtocolConfigurer(ServerConfig serverConfig) {
+        this.serverConfig = serverConfig;
+    }
+
+    @Override
+    public HttpServer configure(HttpServer httpServer) {
+        List<HttpProtocol> protocols = serverConfig.getProtocols();
+        if (protocols == null || protocols.isEmpty()) {
+            throw new IllegalArgumentException("At least one http protocol must be configured");
+        }
+        boolean secure = serverConfig.getSslCertificateFile() != null;
+        if (secure && serverConfig.getSslKeyFile() == null) {
+            throw new IllegalArgumentException("An sslKeyFile must be configured along with the sslCertificateFile");
+        }
+        if (protocols.contains(HttpProtocol.H2) && !secure) {
+            throw new IllegalArgumentException("The H2 protocol requires sslCertificateFile and sslKeyFile to be configured");
+        }
+
+        HttpServer server = httpServer.protocol(protocols.toArray(new HttpProtocol[0]));
+
+        if (secure) {
+            File certificateFile = new File(serverConfig.getSslCertificateFile());
+            File keyFile         = new File(serverConfig.getSslKeyFile());
+            if (protocols.contains(HttpProtocol.H2)) {
+                server = server.secure(spec -> spec.sslContext(Http2SslContextSpec.forServer(certificateFile, keyFile)));
+            } else {
+                server = server.secure(spec -> spec.sslContext(Http11SslContextSpec.forServer(certificateFile, keyFile)));
+            }
+        }
+
+        if (protocols.contains(HttpProtocol.H2) || protocols.contains(HttpProtocol.H2C)) {
+            server = server.http2Settings(settings -> settings
+                .maxConcurrentStreams(serverConfig.getHttp2MaxConcurrentStreams())
+                .initialWindowSize(serverConfig.getHttp2InitialWindowSize()));
+        }
+        return server;
+    }
+}
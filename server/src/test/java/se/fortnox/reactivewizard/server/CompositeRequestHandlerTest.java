@@ -7,19 +7,26 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.PrioritizedPublisher;
 import se.fortnox.reactivewizard.RequestHandler;
 import se.fortnox.reactivewizard.jaxrs.RequestLogger;
+import se.fortnox.reactivewizard.jaxrs.RequestPriority;
 import se.fortnox.reactivewizard.jaxrs.WebException;
 
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.RETRY_AFTER;
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -124,4 +131,51 @@ class CompositeRequestHandlerTest {
             .hasFieldOrPropertyWithValue("status", NOT_FOUND)
             .hasFieldOrPropertyWithValue("error", "resource.not.found");
     }
+
+    @Test
+    void shouldRejectRequestsAboveConcurrencyLimitWithRetryAfter() {
+        when(exceptionHandler.handleException(any(), any(), any(WebException.class))).thenReturn(Flux.empty());
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setEnabled(true);
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        compositeRequestHandler = new CompositeRequestHandler(requestHandlers, exceptionHandler, connectionCounter, requestLogger,
+            new ConcurrencyLimiter(config));
+        AtomicInteger callCounter = new AtomicInteger();
+        Sinks.Empty<Void> firstRequestDone = Sinks.empty();
+        requestHandlers.add((request, response) -> firstRequestDone.asMono().doOnSubscribe(s -> callCounter.incrementAndGet()));
+
+        Disposable firstRequest = Flux.from(compositeRequestHandler.apply(request, response)).subscribe();
+        Flux.from(compositeRequestHandler.apply(request, response)).count().block();
+
+        assertThat(callCounter).hasValue(1);
+        verify(response).addHeader(RETRY_AFTER, "1");
+        verify(exceptionHandler).handleException(any(), any(), webExceptionCaptor.capture());
+        assertThat(webExceptionCaptor.getValue())
+            .hasFieldOrPropertyWithValue("status", SERVICE_UNAVAILABLE)
+            .hasFieldOrPropertyWithValue("error", "concurrency.limit.exceeded");
+
+        firstRequestDone.tryEmitEmpty();
+        assertThat(firstRequest.isDisposed()).isTrue();
+        Flux.from(compositeRequestHandler.apply(request, response)).subscribe();
+        assertThat(callCounter).hasValue(2);
+    }
+
+    @Test
+    void shouldNotLimitCriticalRequests() {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setEnabled(true);
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        compositeRequestHandler = new CompositeRequestHandler(requestHandlers, exceptionHandler, connectionCounter, requestLogger,
+            new ConcurrencyLimiter(config));
+        AtomicInteger callCounter = new AtomicInteger();
+        requestHandlers.add((request, response) -> new PrioritizedPublisher(
+            Mono.<Void>never().doOnSubscribe(s -> callCounter.incrementAndGet()), RequestPriority.Level.CRITICAL));
+
+        Flux.from(compositeRequestHandler.apply(request, response)).subscribe();
+        Flux.from(compositeRequestHandler.apply(request, response)).subscribe();
+
+        assertThat(callCounter).hasValue(2);
+    }
 }
@@ -0,0 +1,92 @@
+package se.fortnox.reactivewizard.server;
+
+import com.codahale.metrics.Gauge;
+import org.junit.jupiter.api.Test;
+import se.fortnox.reactivewizard.jaxrs.RequestPriority;
+import se.fortnox.reactivewizard.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private final long[]             now     = {0};
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(config(), () -> now[0]);
+
+    @Test
+    void shouldRejectRequestsAboveLimit() {
+        List<ConcurrencyLimiter.Request> requests = startAll(RequestPriority.Level.NORMAL);
+
+        assertThat(requests).hasSize(20);
+        assertThat(limiter.tryStart(RequestPriority.Level.NORMAL)).isNull();
+        assertThat(Metrics.registry().counter(ConcurrencyLimiter.REJECTED_METRIC).getCount()).isPositive();
+
+        requests.getFirst().complete(false);
+        assertThat(limiter.tryStart(RequestPriority.Level.NORMAL)).isNotNull();
+    }
+
+    @Test
+    void shouldRejectLowPriorityRequestsFirstAndNeverCriticalRequests() {
+        assertThat(startAll(RequestPriority.Level.LOW)).hasSize(10);
+        assertThat(startAll(RequestPriority.Level.NORMAL)).hasSize(10);
+        assertThat(limiter.tryStart(RequestPriority.Level.CRITICAL)).isNotNull();
+        assertThat(limiter.getInflight()).isEqualTo(21);
+    }
+
+    @Test
+    void shouldRaiseLimitWhileLatencyIsSteady() {
+        for (int round = 0; round < 10; round++) {
+            completeAll(startAll(RequestPriority.Level.NORMAL), 10_000_000);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(20);
+        assertThat((Integer)((Gauge<?>)Metrics.registry().getGauges().get(ConcurrencyLimiter.LIMIT_METRIC)).getValue())
+            .isEqualTo(limiter.getLimit());
+    }
+
+    @Test
+    void shouldLowerLimitWhenLatencyGrows() {
+        for (int round = 0; round < 10; round++) {
+            completeAll(startAll(RequestPriority.Level.NORMAL), 10_000_000);
+        }
+        int raisedLimit = limiter.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            completeAll(startAll(RequestPriority.Level.NORMAL), 100_000_000);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(raisedLimit);
+    }
+
+    @Test
+    void shouldNotRaiseLimitWhenMostlyIdle() {
+        for (int i = 0; i < 100; i++) {
+            completeAll(List.of(limiter.tryStart(RequestPriority.Level.NORMAL)), 10_000_000);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private List<ConcurrencyLimiter.Request> startAll(RequestPriority.Level priority) {
+        List<ConcurrencyLimiter.Request> requests = new ArrayList<>();
+        ConcurrencyLimiter.Request       request;
+        while ((request = limiter.tryStart(priority)) != null) {
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private void completeAll(List<ConcurrencyLimiter.Request> requests, long latencyNanos) {
+        now[0] += latencyNanos;
+        requests.forEach(request -> request.complete(true));
+    }
+
+    private static ConcurrencyLimitConfig config() {
+        ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+        config.setEnabled(true);
+        config.setMinLimit(5);
+        return config;
+    }
+}
@@ -0,0 +1,142 @@
+package se.fortnox.reactivewizard.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.util.function.Tuple2;
+import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.RequestHandler;
+import se.fortnox.reactivewizard.jaxrs.RequestLogger;
+import se.fortnox.reactivewizard.logging.LoggingShutdownHandler;
+import se.fortnox.reactivewizard.server.modifiers.HttpProtocolConfigurer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@ExtendWith(MockitoExtension.class)
+class RwServerHttp2Test {
+
+    @Mock
+    private LoggingShutdownHandler loggingShutdownHandler;
+
+    private final ConnectionCounter connectionCounter = new ConnectionCounter();
+
+    @Test
+    void shouldServeHttp2WithPriorKnowledgeAndHttp11() {
+        RwServer rwServer = server(List.of(HttpProtocol.HTTP11, HttpProtocol.H2C), (request, response) ->
+            response.status(HttpResponseStatus.OK).sendString(Mono.just(protocolOf(request))));
+
+        try {
+            String baseUrl = "http://localhost:" + rwServer.getServer().port();
+            Tuple2<String, HttpResponseStatus> http2Response = HttpClient.create()
+                .protocol(HttpProtocol.H2C)
+                .baseUrl(baseUrl)
+                .get()
+                .responseSingle((response, body) -> body.asString().zipWith(Mono.just(response.status())))
+                .block();
+            String http11Response = HttpClient.create()
+                .baseUrl(baseUrl)
+                .get()
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block();
+
+            assertThat(http2Response.getT1()).isEqualTo("HTTP/2");
+            assertThat(http2Response.getT2()).isEqualTo(HttpResponseStatus.OK);
+            assertThat(http11Response).isEqualTo("HTTP/1.1");
+        } finally {
+            rwServer.getServer().disposeNow();
+        }
+    }
+
+    @Test
+    void shouldHandleEachHttp2StreamAsARequest() {
+        String compressible = "compressible ".repeat(100);
+        RwServer rwServer = server(List.of(HttpProtocol.H2C), (request, response) -> switch (request.path()) {
+            case "streaming" -> response.sendString(Flux.just("first", "second", "third").delayElements(Duration.ofMillis(10)));
+            case "compressible" -> response
+                .header(CONTENT_TYPE, "text/plain")
+                .header(CONTENT_LENGTH, String.valueOf(compressible.length()))
+                .sendString(Mono.just(compressible));
+            default -> null;
+        });
+
+        try {
+            HttpClient client = HttpClient.create()
+                .protocol(HttpProtocol.H2C)
+                .baseUrl("http://localhost:" + rwServer.getServer().port());
+
+            assertThat(client.get().uri("/streaming").responseContent().aggregate().asString().block())
+                .isEqualTo("firstsecondthird");
+
+            Tuple2<String, String> compressed = client.headers(headers -> headers.add(ACCEPT_ENCODING, "gzip"))
+                .get()
+                .uri("/compressible")
+                .responseSingle((response, body) -> body.asString(UTF_8).zipWith(Mono.justOrEmpty(response.responseHeaders().get(CONTENT_ENCODING))))
+                .block();
+            assertThat(compressed.getT1()).isNotEqualTo(compressible);
+            assertThat(compressed.getT2()).isEqualTo("gzip");
+
+            // Requests that are not handled are counted by the ConnectionCounter, one for each stream
+            List<HttpResponseStatus> statuses = Flux.range(0, 10)
+                .flatMap(i -> client.get().uri("/unknown/" + i).response())
+                .map(HttpClientResponse::status)
+                .collectList()
+                .block();
+            assertThat(statuses).hasSize(10).containsOnly(HttpResponseStatus.NOT_FOUND);
+            assertThat(connectionCounter.awaitZero(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            rwServer.getServer().disposeNow();
+        }
+    }
+
+    @Test
+    void shouldRequireCertificateForH2() {
+        ServerConfig config = new ServerConfig();
+        config.setProtocols(List.of(HttpProtocol.H2));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new HttpProtocolConfigurer(config).configure(HttpServer.create()));
+    }
+
+    /**
+     * The streams of HTTP/2 connections are converted to HTTP/1.1 requests, that carry the id of their stream.
+     */
+    private static String protocolOf(HttpServerRequest request) {
+        if (request.requestHeaders().contains(HttpConversionUtil.ExtensionHeaderNames.STREAM_ID.text())) {
+            return "HTTP/2";
+        }
+        return request.version().text();
+    }
+
+    private RwServer server(List<HttpProtocol> protocols, RequestHandler handler) {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setProtocols(protocols);
+        CompositeRequestHandler handlers = new CompositeRequestHandler(Collections.singleton(handler),
+            new ExceptionHandler(new ObjectMapper(), new RequestLogger()), connectionCounter, new RequestLogger());
+        return new RwServer(config, handlers, connectionCounter, loggingShutdownHandler);
+    }
+}
@@ -0,0 +1,111 @@
+package se.fortnox.reactivewizard.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.epoll.Epoll;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import se.fortnox.reactivewizard.ExceptionHandler;
+import se.fortnox.reactivewizard.RequestHandler;
+import se.fortnox.reactivewizard.jaxrs.RequestLogger;
+import se.fortnox.reactivewizard.logging.LoggingShutdownHandler;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith(MockitoExtension.class)
+class RwServerTransportTest {
+
+    private static final RequestHandler THREAD_NAME_HANDLER = (request, response) ->
+        response.status(HttpResponseStatus.OK).sendString(Mono.just(Thread.currentThread().getName()));
+
+    @Mock
+    private LoggingShutdownHandler loggingShutdownHandler;
+
+    @Test
+    void shouldServeOnDedicatedEventLoops() {
+        ServerConfig config = config();
+        config.setEventLoopThreads(2);
+        RwServer rwServer = server(config);
+
+        try {
+            assertThat(get(rwServer)).startsWith("rw-server-");
+        } finally {
+            rwServer.getServer().disposeNow();
+        }
+        assertThat(rwServer.getServer().isDisposed()).isTrue();
+    }
+
+    @Test
+    void shouldShareDefaultEventLoopsByDefault() {
+        RwServer rwServer = server(config());
+
+        try {
+            assertThat(get(rwServer)).startsWith("reactor-http-");
+        } finally {
+            rwServer.getServer().disposeNow();
+        }
+    }
+
+    @Test
+    void shouldAcceptConnectionsOnAllAcceptors() {
+        assumeTrue(Epoll.isAvailable());
+        ServerConfig config = config();
+        config.setAcceptors(3);
+        config.setSoBacklog(512);
+        RwServer rwServer = server(config);
+
+        try {
+            List<String> responses = Flux.range(0, 20)
+                .flatMap(i -> Mono.fromSupplier(() -> get(rwServer)))
+                .collectList()
+                .block();
+            assertThat(responses).hasSize(20).allMatch(threadName -> threadName.startsWith("rw-server-epoll-"));
+        } finally {
+            rwServer.getServer().disposeNow();
+        }
+        assertThat(rwServer.getServer().isDisposed()).isTrue();
+    }
+
+    @Test
+    void shouldRequireNativeTransportForMultipleAcceptors() {
+        ServerConfig config = config();
+        config.setAcceptors(2);
+        config.setPreferNativeTransport(false);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> server(config));
+    }
+
+    private static String get(RwServer rwServer) {
+        return HttpClient.create()
+            .baseUrl("http://localhost:" + rwServer.getServer().port())
+            .get()
+            .responseContent()
+            .aggregate()
+            .asString()
+            .block();
+    }
+
+    private static ServerConfig config() {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        return config;
+    }
+
+    private RwServer server(ServerConfig config) {
+        ConnectionCounter connectionCounter = new ConnectionCounter();
+        CompositeRequestHandler handlers = new CompositeRequestHandler(Collections.singleton(THREAD_NAME_HANDLER),
+            new ExceptionHandler(new ObjectMapper(), new RequestLogger()), connectionCounter, new RequestLogger());
+        return new RwServer(config, handlers, connectionCounter, loggingShutdownHandler);
+    }
+}
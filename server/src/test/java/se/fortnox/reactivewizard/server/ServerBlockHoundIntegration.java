@@ -0,0 +1,9 @@
+package se.fortnox.reactivewizard.server;
+
+import com.google.auto.service.AutoService;
+import reactor.blockhound.integration.BlockHoundIntegration;
+import se.fortnox.reactivewizard.test.RwBlockHoundIntegration;
+
+@AutoService(BlockHoundIntegration.class)
+public class ServerBlockHoundIntegration extends RwBlockHoundIntegration {
+}
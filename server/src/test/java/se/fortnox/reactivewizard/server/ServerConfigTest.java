@@ -1,6 +1,7 @@
 package se.fortnox.reactivewizard.server;
 
 import org.junit.jupiter.api.Test;
+import reactor.netty.http.HttpProtocol;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,6 +17,12 @@ class ServerConfigTest {
         assertThat(serverConfig.getShutdownTimeoutSeconds()).isEqualTo(20);
         assertThat(serverConfig.getMaxInitialLineLengthDefault()).isEqualTo(4096);
         assertThat(serverConfig.getMaxRequestSize()).isEqualTo(10*1024*1024);
+        assertThat(serverConfig.getProtocols()).containsExactly(HttpProtocol.HTTP11);
+        assertThat(serverConfig.getSslCertificateFile()).isNull();
+        assertThat(serverConfig.isPreferNativeTransport()).isTrue();
+        assertThat(serverConfig.getEventLoopThreads()).isZero();
+        assertThat(serverConfig.getAcceptors()).isEqualTo(1);
+        assertThat(serverConfig.isTcpNoDelay()).isTrue();
     }
 
     @Test
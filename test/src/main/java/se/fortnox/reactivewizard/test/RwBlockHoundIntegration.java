@@ -12,7 +12,6 @@ public abstract class RwBlockHoundIntegration implements BlockHoundIntegration {
     @Override
     public void applyTo(BlockHound.Builder builder) {
         builder
-            .allowBlockingCallsInside("se.fortnox.reactivewizard.jaxrs.WebException", "createUUID")
             .allowBlockingCallsInside("com.fasterxml.jackson.databind.cfg.MapperBuilder", "findAndAddModules")
             .allowBlockingCallsInside("com.fasterxml.jackson.databind.deser.DeserializerCache", "_createAndCacheValueDeserializer");
     }
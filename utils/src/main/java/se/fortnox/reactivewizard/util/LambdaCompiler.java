@@ -74,4 +74,137 @@ public class LambdaCompiler {
         );
         return (Function<I,T>) callSite.getTarget().invoke();
     }
+
+    /**
+     * Compile an invoker of an instance method, bound to an instance. Methods with up to
+     * {@value #MAX_COMPILED_INVOKER_ARITY} parameters are invoked through a generated lambda with one parameter per
+     * method parameter, so that the JIT can inline the call. Methods with more parameters are invoked through the method
+     * handle.
+     *
+     * @param lookup the lookup with access to the method
+     * @param methodHandle the handle of the instance method
+     * @param instance the instance to invoke the method on
+     * @return the invoker
+     * @throws Throwable if the lambda could not be compiled
+     */
+    public static MethodInvoker compileLambdaInvoker(MethodHandles.Lookup lookup, MethodHandle methodHandle, Object instance) throws Throwable {
+        MethodType implType = methodHandle.type();
+        int        arity    = implType.parameterCount() - 1;
+        if (!useLambdas || arity > MAX_COMPILED_INVOKER_ARITY) {
+            return spreadingInvoker(methodHandle.bindTo(instance));
+        }
+        CallSite callSite = LambdaMetafactory.metafactory(
+            lookup,
+            "invoke",
+            MethodType.methodType(INVOKER_TYPES[arity], implType.parameterType(0)),
+            MethodType.genericMethodType(arity),
+            methodHandle,
+            implType.dropParameterTypes(0, 1).wrap()
+        );
+        return toMethodInvoker(arity, callSite.getTarget().invoke(instance));
+    }
+
+    /**
+     * Compile an invoker of a constructor, which returns the new instance. Like {@link #compileLambdaInvoker}, constructors
+     * with up to {@value #MAX_COMPILED_INVOKER_ARITY} parameters are invoked through a generated lambda.
+     *
+     * @param lookup the lookup with access to the constructor
+     * @param constructorHandle the handle of the constructor
+     * @return the invoker
+     * @throws Throwable if the lambda could not be compiled
+     */
+    public static MethodInvoker compileLambdaConstructorInvoker(MethodHandles.Lookup lookup, MethodHandle constructorHandle) throws Throwable {
+        MethodType implType = constructorHandle.type();
+        int        arity    = implType.parameterCount();
+        if (!useLambdas || arity > MAX_COMPILED_INVOKER_ARITY) {
+            return spreadingInvoker(constructorHandle);
+        }
+        CallSite callSite = LambdaMetafactory.metafactory(
+            lookup,
+            "invoke",
+            MethodType.methodType(INVOKER_TYPES[arity]),
+            MethodType.genericMethodType(arity),
+            constructorHandle,
+            implType.wrap()
+        );
+        return toMethodInvoker(arity, callSite.getTarget().invoke());
+    }
+
+    private static MethodInvoker spreadingInvoker(MethodHandle methodHandle) {
+        int          arity    = methodHandle.type().parameterCount();
+        MethodHandle spreader = methodHandle
+            .asType(MethodType.genericMethodType(arity))
+            .asSpreader(Object[].class, arity);
+        return args -> spreader.invokeExact(args);
+    }
+
+    private static MethodInvoker toMethodInvoker(int arity, Object invoker) {
+        return switch (arity) {
+            case 0 -> {
+                Invoker0 invoker0 = (Invoker0)invoker;
+                yield args -> invoker0.invoke();
+            }
+            case 1 -> {
+                Invoker1 invoker1 = (Invoker1)invoker;
+                yield args -> invoker1.invoke(args[0]);
+            }
+            case 2 -> {
+                Invoker2 invoker2 = (Invoker2)invoker;
+                yield args -> invoker2.invoke(args[0], args[1]);
+            }
+            case 3 -> {
+                Invoker3 invoker3 = (Invoker3)invoker;
+                yield args -> invoker3.invoke(args[0], args[1], args[2]);
+            }
+            case 4 -> {
+                Invoker4 invoker4 = (Invoker4)invoker;
+                yield args -> invoker4.invoke(args[0], args[1], args[2], args[3]);
+            }
+            case 5 -> {
+                Invoker5 invoker5 = (Invoker5)invoker;
+                yield args -> invoker5.invoke(args[0], args[1], args[2], args[3], args[4]);
+            }
+            default -> {
+                Invoker6 invoker6 = (Invoker6)invoker;
+                yield args -> invoker6.invoke(args[0], args[1], args[2], args[3], args[4], args[5]);
+            }
+        };
+    }
+
+    static final int MAX_COMPILED_INVOKER_ARITY = 6;
+
+    private static final Class<?>[] INVOKER_TYPES = {
+        Invoker0.class, Invoker1.class, Invoker2.class, Invoker3.class, Invoker4.class, Invoker5.class, Invoker6.class
+    };
+
+    // The invoker interfaces are implemented by classes generated for the lookup class of the method, so they must be
+    // public even though they are only used by the compiled invokers.
+
+    public interface Invoker0 {
+        Object invoke() throws Throwable;
+    }
+
+    public interface Invoker1 {
+        Object invoke(Object arg1) throws Throwable;
+    }
+
+    public interface Invoker2 {
+        Object invoke(Object arg1, Object arg2) throws Throwable;
+    }
+
+    public interface Invoker3 {
+        Object invoke(Object arg1, Object arg2, Object arg3) throws Throwable;
+    }
+
+    public interface Invoker4 {
+        Object invoke(Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable;
+    }
+
+    public interface Invoker5 {
+        Object invoke(Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable;
+    }
+
+    public interface Invoker6 {
+        Object invoke(Object arg1, Object arg2, Object arg3, Object arg4, Object arg5, Object arg6) throws Throwable;
+    }
 }
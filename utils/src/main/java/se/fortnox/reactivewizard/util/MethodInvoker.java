@@ -0,0 +1,16 @@
+package se.fortnox.reactivewizard.util;
+
+/**
+ * Interface for invoking a method on a given instance, with the arguments of the method as an array.
+ */
+@FunctionalInterface
+public interface MethodInvoker {
+    /**
+     * Invoke the method. Exceptions thrown by the method are thrown as they are, not wrapped.
+     *
+     * @param args the arguments of the method
+     * @return the return value of the method
+     * @throws Throwable the exception thrown by the method
+     */
+    Object invoke(Object[] args) throws Throwable;
+}
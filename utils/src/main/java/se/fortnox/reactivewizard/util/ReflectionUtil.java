@@ -403,6 +403,39 @@ public class ReflectionUtil {
         }
     }
 
+    /**
+     * Create an invoker of an instance method, bound to an instance. The invoker is compiled once, so it is much cheaper
+     * to call than {@link Method#invoke(Object, Object...)}.
+     *
+     * @param method the instance method
+     * @param instance the instance to invoke the method on
+     * @return the invoker
+     */
+    public static MethodInvoker methodInvoker(Method method, Object instance) {
+        try {
+            MethodHandles.Lookup lookup = lookupFor(method.getDeclaringClass(), method);
+            return LambdaCompiler.compileLambdaInvoker(lookup, lookup.unreflect(method), instance);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create an invoker of a constructor, which returns the new instance. The invoker is compiled once, so it is much
+     * cheaper to call than {@link Constructor#newInstance(Object...)}.
+     *
+     * @param constructor the constructor
+     * @return the invoker
+     */
+    public static MethodInvoker constructorInvoker(Constructor<?> constructor) {
+        try {
+            MethodHandles.Lookup lookup = lookupFor(constructor.getDeclaringClass(), constructor);
+            return LambdaCompiler.compileLambdaConstructorInvoker(lookup, lookup.unreflectConstructor(constructor));
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     static <T> MethodHandles.Lookup lookupFor(Class<T> cls, AccessibleObject accessibleObject) {
         try {
             final MethodHandles.Lookup original = MethodHandles.lookup();
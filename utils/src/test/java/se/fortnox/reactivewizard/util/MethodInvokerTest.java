@@ -0,0 +1,113 @@
+package se.fortnox.reactivewizard.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class MethodInvokerTest {
+
+    public static Collection useLambdasParameters() {
+        return List.of(new Object[][] {{ true }, { false }});
+    }
+
+    @AfterEach
+    public void resetUseLambdas() {
+        LambdaCompiler.useLambdas = true;
+    }
+
+    @MethodSource("useLambdasParameters")
+    @ParameterizedTest
+    void shouldInvokeMethodsOfAnyArity(boolean useLambdas) throws Throwable {
+        LambdaCompiler.useLambdas = useLambdas;
+
+        assertThat(invoker("none").invoke(new Object[0])).isEqualTo("none");
+        assertThat(invoker("primitive").invoke(new Object[]{5, "a"})).isEqualTo("5a");
+        assertThat(invoker("six").invoke(new Object[]{1, 2, 3, 4, 5, 6L})).isEqualTo("123456");
+        assertThat(invoker("seven").invoke(new Object[]{1, 2, 3, 4, 5, 6, 7})).isEqualTo(28L);
+    }
+
+    @MethodSource("useLambdasParameters")
+    @ParameterizedTest
+    void shouldThrowExceptionOfMethodUnwrapped(boolean useLambdas) {
+        LambdaCompiler.useLambdas = useLambdas;
+
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> invoker("throwing").invoke(new Object[0]))
+            .withMessage("expected");
+    }
+
+    @MethodSource("useLambdasParameters")
+    @ParameterizedTest
+    void shouldInvokeInterfaceMethodOnProxy(boolean useLambdas) throws Throwable {
+        LambdaCompiler.useLambdas = useLambdas;
+        Greeter greeter = (Greeter)Proxy.newProxyInstance(Greeter.class.getClassLoader(),
+            new Class[]{Greeter.class},
+            (proxy, method, args) -> "Hello " + args[0]);
+
+        MethodInvoker methodInvoker = ReflectionUtil.methodInvoker(Greeter.class.getMethod("greet", String.class), greeter);
+
+        assertThat(methodInvoker.invoke(new Object[]{"World"})).isEqualTo("Hello World");
+    }
+
+    @MethodSource("useLambdasParameters")
+    @ParameterizedTest
+    void shouldInvokeConstructorsOfAnyArity(boolean useLambdas) throws Throwable {
+        LambdaCompiler.useLambdas = useLambdas;
+
+        MethodInvoker two   = ReflectionUtil.constructorInvoker(Two.class.getDeclaredConstructors()[0]);
+        MethodInvoker seven = ReflectionUtil.constructorInvoker(Seven.class.getDeclaredConstructors()[0]);
+
+        assertThat(two.invoke(new Object[]{1, "a"})).isEqualTo(new Two(1, "a"));
+        assertThat(seven.invoke(new Object[]{1, 2, 3, 4, 5, 6, null})).isEqualTo(new Seven(1, 2, 3, 4, 5, 6, null));
+    }
+
+    private static MethodInvoker invoker(String methodName) {
+        for (Method method : Invoked.class.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return ReflectionUtil.methodInvoker(method, new Invoked());
+            }
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    private record Two(int number, String text) {
+    }
+
+    private record Seven(int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, String arg7) {
+    }
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    private static class Invoked {
+        private String none() {
+            return "none";
+        }
+
+        String primitive(int number, String text) {
+            return number + text;
+        }
+
+        String six(Integer arg1, Integer arg2, Integer arg3, Integer arg4, Integer arg5, long arg6) {
+            return "" + arg1 + arg2 + arg3 + arg4 + arg5 + arg6;
+        }
+
+        long seven(int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+            return arg1 + arg2 + arg3 + arg4 + arg5 + arg6 + arg7;
+        }
+
+        String throwing() throws IOException {
+            throw new IOException("expected");
+        }
+    }
+}